@@ -0,0 +1,36 @@
+package com.espn.perf.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.espn.Grouping;
+
+// Runs the suite with the gc profiler always on, so every result comes with its allocation rate (gc.alloc.rate.norm
+// is bytes per operation, the number to watch for regressions).  Any other arguments are JMH's usual ones, e.g.
+// "Parse -p athletes=20000 -f 1".
+//
+// Compile perf/bench with jmh-generator-annprocess as an annotation processor, alongside what LoadDriver needs, and
+// run from SportsCenter/ (or set -Dperf.fixtures) so the fixtures are found.
+public class Benchmarks {
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions cmdLine = new CommandLineOptions(args);
+		OptionsBuilder options = new OptionsBuilder();
+		options.parent(cmdLine).addProfiler(GCProfiler.class);
+		if (cmdLine.getIncludes().isEmpty()) {
+			options.include(Benchmarks.class.getPackage().getName() + ".");
+		}
+		new Runner(options.build()).run();
+	}
+
+	// A sport hung off a root, the way the activity builds its tree
+	static Grouping sport() {
+		Grouping root = new Grouping(Grouping.GroupingType.NONE, "", "", null);
+		Grouping sport = new Grouping(Grouping.GroupingType.SPORT, "Baseball", "Baseball", root);
+		root.add(sport);
+		return sport;
+	}
+}
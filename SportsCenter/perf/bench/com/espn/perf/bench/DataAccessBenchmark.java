@@ -0,0 +1,72 @@
+package com.espn.perf.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.espn.AthleteIndex;
+import com.espn.ESPNDataAccess;
+import com.espn.Grouping;
+import com.espn.NewsItem;
+import com.espn.RateLimiter;
+import com.espn.TeamGrouping;
+import com.espn.perf.Fixtures;
+import com.espn.perf.StandInServer;
+
+// ESPNDataAccess's loads end to end against a StandInServer on loopback: request, gzip, decode and parse.  The server
+// adds no latency, so what's left is our side of a load plus loopback.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataAccessBenchmark {
+	@Param({"fixture", "5000"})
+	public String athletes;
+
+	@Setup
+	public void setUp() throws IOException {
+		mServer = new StandInServer(new File(System.getProperty("perf.fixtures", "perf/fixtures")));
+		if (!athletes.equals("fixture")) {
+			mServer.put("baseball/mlb/athletes", Fixtures.athletes("baseball", "MLB", Integer.parseInt(athletes)));
+		}
+		mServer.start(0);
+
+		mAccess = new ESPNDataAccess(mServer.getApiUrlBase(), "", "perf", new RateLimiter("bench-api", 1e6, 1000),
+			new RateLimiter("bench-proxy", 1e6, 1000));
+		mLeague = mAccess.LoadLeaguesFromSport(Benchmarks.sport(), null).getFirst();
+	}
+
+	@TearDown
+	public void tearDown() {
+		mServer.stop();
+	}
+
+	@Benchmark
+	public AthleteIndex loadAthletesFromLeague() {
+		return mAccess.LoadAthletesFromLeague(mLeague, null);
+	}
+
+	@Benchmark
+	public LinkedList<TeamGrouping> loadTeamsFromLeague() {
+		return mAccess.LoadTeamsFromLeague(mLeague, null);
+	}
+
+	@Benchmark
+	public LinkedList<NewsItem> loadNewsFromGroup() {
+		return mAccess.LoadNewsFromGroup(mLeague, null);
+	}
+
+	private StandInServer mServer;
+	private ESPNDataAccess mAccess;
+	private Grouping mLeague;
+}
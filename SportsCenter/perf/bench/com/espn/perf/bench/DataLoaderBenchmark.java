@@ -0,0 +1,122 @@
+package com.espn.perf.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.espn.AthleteIndex;
+import com.espn.DataAccess;
+import com.espn.DataLoader;
+import com.espn.ESPNResponseParser;
+import com.espn.Grouping;
+import com.espn.JsonStreamReader;
+import com.espn.NewsItem;
+import com.espn.Player;
+import com.espn.RequestContext;
+import com.espn.TeamGrouping;
+import com.espn.perf.Fixtures;
+
+// DataLoader's own overhead on the three ways a load can go: a memory hit, a memory miss served by the disk tier, and
+// a miss all the way to DataAccess.  DataAccess here hands back lists parsed once up front, so a miss measures the
+// loader's bookkeeping (single flight, cache insert, persisting to disk) rather than the network or the parser.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataLoaderBenchmark {
+	// Answers loads from the fixtures without touching the network
+	private static class ReplayDataAccess implements DataAccess {
+		ReplayDataAccess() throws IOException {
+			mLeagues = ESPNResponseParser.parseLeagues(reader("baseball"), Benchmarks.sport());
+			mTeams = ESPNResponseParser.parseTeams(reader("baseball/mlb/teams"), mLeagues.getFirst());
+			mAthletes = ESPNResponseParser.parseAthletes(reader("baseball/mlb/athletes"));
+			mNews = ESPNResponseParser.parseNews(reader("baseball/mlb/news"));
+		}
+
+		@Override
+		public AthleteIndex LoadAthletesFromLeague(Grouping group, RequestContext ctx) {
+			return mAthletes;
+		}
+
+		@Override
+		public LinkedList<Grouping> LoadLeaguesFromSport(Grouping group, RequestContext ctx) {
+			return mLeagues;
+		}
+
+		@Override
+		public LinkedList<TeamGrouping> LoadTeamsFromLeague(Grouping group, RequestContext ctx) {
+			return mTeams;
+		}
+
+		@Override
+		public LinkedList<NewsItem> LoadNewsFromGroup(Grouping group, RequestContext ctx) {
+			return mNews;
+		}
+
+		private static JsonStreamReader reader(String path) throws IOException {
+			return new JsonStreamReader(new InputStreamReader(new ByteArrayInputStream(Fixtures.load(path)), "UTF-8"));
+		}
+
+		final LinkedList<Grouping> mLeagues;
+		final LinkedList<TeamGrouping> mTeams;
+		final AthleteIndex mAthletes;
+		final LinkedList<NewsItem> mNews;
+	}
+
+	@Setup
+	public void setUp() throws IOException {
+		ReplayDataAccess access = new ReplayDataAccess();
+		mTeam = access.mTeams.getFirst();
+		mMemoryOnly = new DataLoader(access, null);
+		mCacheDir = File.createTempFile("dataloader", "bench");
+		mCacheDir.delete();
+		mCacheDir.mkdirs();
+		mWithDisk = new DataLoader(access, mCacheDir);
+
+		// Warm both, so the hit paths hit and the disk has something to restore
+		mMemoryOnly.LoadPlayersFromTeam(mTeam);
+		mWithDisk.LoadPlayersFromTeam(mTeam);
+	}
+
+	@TearDown
+	public void tearDown() {
+		for (File file : mCacheDir.listFiles()) {
+			file.delete();
+		}
+		mCacheDir.delete();
+	}
+
+	@Benchmark
+	public LinkedList<Player> memoryHit() {
+		return mMemoryOnly.LoadPlayersFromTeam(mTeam);
+	}
+
+	// Clearing a one entry cache is noise next to the restore it forces
+	@Benchmark
+	public LinkedList<Player> diskHit() {
+		mWithDisk.getMemoryCache().clear();
+		return mWithDisk.LoadPlayersFromTeam(mTeam);
+	}
+
+	@Benchmark
+	public LinkedList<Player> miss() {
+		mMemoryOnly.getMemoryCache().clear();
+		return mMemoryOnly.LoadPlayersFromTeam(mTeam);
+	}
+
+	private TeamGrouping mTeam;
+	private DataLoader mMemoryOnly;
+	private DataLoader mWithDisk;
+	private File mCacheDir;
+}
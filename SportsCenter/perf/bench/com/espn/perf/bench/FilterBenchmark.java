@@ -0,0 +1,55 @@
+package com.espn.perf.bench;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.espn.PrefixFilter;
+
+// ImgTextAdapter's performFiltering over 10k list items, through the PrefixFilter it delegates to.  The prefixes
+// cover matching most items at the start of their text, matching on a later word, and matching nothing, which is
+// the case that splits every item.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterBenchmark {
+	private static final String[] sFirstNames = {"Jose", "Mike", "Chris", "Ryan", "Matt", "Alex", "David", "Josh", "Brandon", "Justin"};
+	private static final String[] sLastNames = {"Bautista", "Lawrie", "Escobar", "Romero", "Morrow", "Arencibia", "Rasmus", "Encarnacion", "Johnson", "Lind"};
+	private static final String[] sPositions = {"Shortstop", "Pitcher", "Catcher", "First Base", "Center Field", "Designated Hitter"};
+
+	private static final PrefixFilter.Text<CharSequence> sText = new PrefixFilter.Text<CharSequence>() {
+		@Override
+		public CharSequence textOf(CharSequence item) {
+			return item;
+		}
+	};
+
+	@Param({"jo", "bau", "zz"})
+	public String prefix;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(10000);
+		mItems = new ArrayList<CharSequence>(10000);
+		for (int i = 0; i < 10000; i++) {
+			mItems.add(sFirstNames[random.nextInt(sFirstNames.length)] + " " + sLastNames[random.nextInt(sLastNames.length)] +
+				", " + sPositions[random.nextInt(sPositions.length)]);
+		}
+	}
+
+	@Benchmark
+	public ArrayList<CharSequence> performFiltering() {
+		return PrefixFilter.filter(mItems, prefix, sText);
+	}
+
+	private ArrayList<CharSequence> mItems;
+}
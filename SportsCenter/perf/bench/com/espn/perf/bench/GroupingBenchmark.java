@@ -0,0 +1,61 @@
+package com.espn.perf.bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.espn.Grouping;
+
+// Child lookups on a group with 'children' children.  We look for the last one added, which used to be the worst case
+// for a scan, and for a name that isn't there; both should now be flat across 'children'.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GroupingBenchmark {
+	@Param({"100", "1000", "10000"})
+	public int children;
+
+	@Setup
+	public void setUp() {
+		mSport = Benchmarks.sport();
+		ArrayList<Grouping> leagues = new ArrayList<Grouping>(children);
+		for (int i = 0; i < children; i++) {
+			leagues.add(new Grouping(Grouping.GroupingType.LEAGUE, "League " + i, "L" + i, mSport));
+		}
+		mSport.addAll(leagues);
+		mLastName = "league " + (children - 1);
+		mLastAbbreviation = "l" + (children - 1);
+	}
+
+	@Benchmark
+	public Grouping getByName() {
+		return mSport.get(mLastName);
+	}
+
+	@Benchmark
+	public Grouping getContentGroupByAbbreviation() {
+		return mSport.getContentGroup(mLastAbbreviation);
+	}
+
+	@Benchmark
+	public Grouping getLastByPosition() {
+		return mSport.mContents.get(children - 1);
+	}
+
+	@Benchmark
+	public Grouping getMissing() {
+		return mSport.getContentGroup("No Such League");
+	}
+
+	private Grouping mSport;
+	private String mLastName;
+	private String mLastAbbreviation;
+}
@@ -0,0 +1,88 @@
+package com.espn.perf.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.espn.AthleteIndex;
+import com.espn.ESPNResponseParser;
+import com.espn.Grouping;
+import com.espn.JsonStreamReader;
+import com.espn.NewsItem;
+import com.espn.TeamGrouping;
+import com.espn.perf.Fixtures;
+
+// The parse half of ESPNDataAccess's loads, from bytes already in memory, so the numbers are the parser's alone.
+// 'athletes' is "fixture" for the checked-in league-wide list, or a count for one Fixtures builds of that size.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParseBenchmark {
+	@Param({"fixture", "5000"})
+	public String athletes;
+
+	@Setup
+	public void setUp() throws IOException {
+		mAthletes = athletes.equals("fixture") ? Fixtures.load("baseball/mlb/athletes") :
+			Fixtures.athletes("baseball", "MLB", Integer.parseInt(athletes)).getBytes("UTF-8");
+		mLeagues = Fixtures.load("baseball");
+		mTeams = Fixtures.load("baseball/mlb/teams");
+		mNews = Fixtures.load("baseball/mlb/news");
+
+		mSport = Benchmarks.sport();
+		mLeague = ESPNResponseParser.parseLeagues(reader(mLeagues), mSport).getFirst();
+		for (NewsItem item : ESPNResponseParser.parseNews(reader(mNews))) {
+			mNewsIds.add(item.mID);
+		}
+	}
+
+	@Benchmark
+	public AthleteIndex parseAthletes() throws IOException {
+		return ESPNResponseParser.parseAthletes(reader(mAthletes));
+	}
+
+	@Benchmark
+	public LinkedList<TeamGrouping> parseTeams() throws IOException {
+		return ESPNResponseParser.parseTeams(reader(mTeams), mLeague);
+	}
+
+	@Benchmark
+	public LinkedList<Grouping> parseLeagues() throws IOException {
+		return ESPNResponseParser.parseLeagues(reader(mLeagues), mSport);
+	}
+
+	@Benchmark
+	public LinkedList<NewsItem> parseNews() throws IOException {
+		return ESPNResponseParser.parseNews(reader(mNews));
+	}
+
+	// A refresh that brings nothing new: every headline is one we have
+	@Benchmark
+	public LinkedList<NewsItem> parseNewsRefresh() throws IOException {
+		return ESPNResponseParser.parseNews(reader(mNews), mNewsIds);
+	}
+
+	private static JsonStreamReader reader(byte[] payload) throws IOException {
+		return new JsonStreamReader(new InputStreamReader(new ByteArrayInputStream(payload), "UTF-8"));
+	}
+
+	private byte[] mAthletes;
+	private byte[] mLeagues;
+	private byte[] mTeams;
+	private byte[] mNews;
+	private HashSet<String> mNewsIds = new HashSet<String>();
+	private Grouping mSport;
+	private Grouping mLeague;
+}
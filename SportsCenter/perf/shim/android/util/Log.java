@@ -0,0 +1,33 @@
+package android.util;
+
+// Desktop stand-in for the framework's Log, so the data path can run on a plain JVM for the perf tools; android.jar
+// only carries stubs that throw.  Verbose and debug output is dropped unless -Dperf.verbose=true, since it would
+// swamp whatever is being measured.
+public final class Log {
+	public static int v(String tag, String msg) {
+		return sVerbose ? print("V", tag, msg) : 0;
+	}
+
+	public static int d(String tag, String msg) {
+		return sVerbose ? print("D", tag, msg) : 0;
+	}
+
+	public static int i(String tag, String msg) {
+		return sVerbose ? print("I", tag, msg) : 0;
+	}
+
+	public static int w(String tag, String msg) {
+		return print("W", tag, msg);
+	}
+
+	public static int e(String tag, String msg) {
+		return print("E", tag, msg);
+	}
+
+	private static int print(String level, String tag, String msg) {
+		System.err.println(level + "/" + tag + ": " + msg);
+		return 0;
+	}
+
+	private static final boolean sVerbose = Boolean.getBoolean("perf.verbose");
+}
@@ -0,0 +1,125 @@
+package com.espn.perf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+// Fixtures builds synthetic payloads shaped like the api's v1 responses, for when the checked-in fixtures aren't big
+// enough; a league-wide athletes list of a few thousand, say.  The fields we don't read are there too, so the parser
+// pays for skipping them the way it would against the api.  Output only depends on the arguments.  It also reads back
+// the checked-in fixtures (synthetic too; see perf/README.md), for tools that want the bytes without going through a
+// StandInServer.
+public class Fixtures {
+	private static final String[] sFirstNames = {"Jose", "Mike", "Chris", "Ryan", "Matt", "Alex", "David", "Josh", "Brandon", "Justin"};
+	private static final String[] sLastNames = {"Bautista", "Lawrie", "Escobar", "Romero", "Morrow", "Arencibia", "Rasmus", "Encarnacion", "Johnson", "Lind"};
+	private static final String[] sPositions = {"Shortstop", "Pitcher", "Catcher", "First Base", "Center Field", "Designated Hitter"};
+	private static final int sTeamsPerLeague = 30;	// athletes are spread over teams t0..t29, as teams() names them
+
+	// The fixture for 'path' ("baseball/mlb/teams"), from the directory named by -Dperf.fixtures
+	public static byte[] load(String path) throws IOException {
+		return read(new File(System.getProperty("perf.fixtures", "perf/fixtures"), path + ".json"));
+	}
+
+	public static String leagues(String sport, int count) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\"sports\":[{\"name\":\"").append(sport).append("\",\"id\":1,\"uid\":\"s:1\",\"leagues\":[");
+		for (int i = 0; i < count; i++) {
+			sb.append(i > 0 ? "," : "");
+			sb.append("{\"name\":\"League ").append(i).append("\",\"abbreviation\":\"l").append(i).append("\",\"id\":").append(i);
+			sb.append(",\"groupId\":").append(i).append(",\"shortName\":\"L").append(i).append("\",\"season\":{\"year\":2012,\"type\":2,\"description\":\"regular\"}}");
+		}
+		sb.append("]}],\"resultsOffset\":0,\"resultsLimit\":50,\"resultsCount\":").append(count);
+		sb.append(",\"timestamp\":\"2012-07-20T17:32:41Z\",\"status\":\"success\"}");
+		return sb.toString();
+	}
+
+	public static String teams(String sport, String league, int count) {
+		StringBuilder sb = new StringBuilder();
+		open(sb, sport, league);
+		sb.append("\"teams\":[");
+		for (int i = 0; i < count; i++) {
+			sb.append(i > 0 ? "," : "");
+			sb.append("{\"id\":").append(i).append(",\"location\":\"City ").append(i).append("\",\"name\":\"Team ").append(i);
+			sb.append("\",\"abbreviation\":\"t").append(i).append("\",\"color\":\"134A8E\",");
+			links(sb, "teams", i);
+			sb.append("}");
+		}
+		sb.append("]");
+		close(sb, count);
+		return sb.toString();
+	}
+
+	public static String athletes(String sport, String league, int count) {
+		Random random = new Random(count);
+		StringBuilder sb = new StringBuilder(count * 512);
+		open(sb, sport, league);
+		sb.append("\"athletes\":[");
+		for (int i = 0; i < count; i++) {
+			String first = sFirstNames[random.nextInt(sFirstNames.length)];
+			String last = sLastNames[random.nextInt(sLastNames.length)];
+			sb.append(i > 0 ? "," : "");
+			sb.append("{\"id\":").append(i).append(",\"firstName\":\"").append(first).append("\",\"lastName\":\"").append(last);
+			sb.append("\",\"fullName\":\"").append(first).append(" ").append(last);
+			sb.append("\",\"displayName\":\"").append(first).append(" ").append(last);
+			sb.append("\",\"shortName\":\"").append(first.charAt(0)).append(". ").append(last);
+			sb.append("\",\"position\":{\"name\":\"").append(sPositions[random.nextInt(sPositions.length)]).append("\"},");
+			sb.append("\"team\":{\"id\":").append(i % sTeamsPerLeague).append(",\"abbreviation\":\"t").append(i % sTeamsPerLeague).append("\"},");
+			links(sb, "athletes", i);
+			sb.append("}");
+		}
+		sb.append("]");
+		close(sb, count);
+		return sb.toString();
+	}
+
+	public static String news(int count) {
+		StringBuilder sb = new StringBuilder(count * 768);
+		sb.append("{\"timestamp\":\"2012-07-20T17:32:41Z\",\"status\":\"success\",\"version\":\"v1\",\"headlines\":[");
+		for (int i = 0; i < count; i++) {
+			sb.append(i > 0 ? "," : "");
+			sb.append("{\"headline\":\"Headline number ").append(i).append("\",\"keywords\":[\"MLB\",\"baseball\"],\"lastModified\":\"2012-07-20T17:00:00Z\"");
+			sb.append(",\"description\":\"A description long enough to look like the ones the api sends back for story ").append(i).append(".\"");
+			sb.append(",\"source\":\"ESPN.com\",\"id\":").append(8000000 + i).append(",\"published\":\"2012-07-20T16:").append(String.format("%02d", i % 60)).append(":00Z\"");
+			sb.append(",\"type\":\"Story\",\"premium\":false,\"images\":[],\"categories\":[{\"type\":\"league\",\"description\":\"MLB\",\"leagueId\":10}]}");
+		}
+		sb.append("],\"resultsOffset\":0,\"resultsLimit\":10,\"resultsCount\":").append(count).append("}");
+		return sb.toString();
+	}
+
+	private static void open(StringBuilder sb, String sport, String league) {
+		sb.append("{\"sports\":[{\"name\":\"").append(sport).append("\",\"id\":1,\"uid\":\"s:1\",\"leagues\":[{\"name\":\"");
+		sb.append(league).append("\",\"abbreviation\":\"").append(league.toLowerCase()).append("\",\"id\":10,\"groupId\":9,\"shortName\":\"");
+		sb.append(league).append("\",");
+	}
+
+	private static void close(StringBuilder sb, int count) {
+		sb.append("}]}],\"resultsOffset\":0,\"resultsLimit\":").append(count).append(",\"resultsCount\":").append(count);
+		sb.append(",\"timestamp\":\"2012-07-20T17:32:41Z\",\"status\":\"success\"}");
+	}
+
+	private static void links(StringBuilder sb, String kind, int id) {
+		sb.append("\"links\":{\"api\":{\"").append(kind).append("\":{\"href\":\"http://api.espn.com/v1/sports/baseball/mlb/");
+		sb.append(kind).append("/").append(id).append("\"}},\"web\":{\"").append(kind).append("\":{\"href\":\"http://espn.go.com/mlb/");
+		sb.append(kind).append("/_/id/").append(id).append("\"}},\"mobile\":{\"").append(kind).append("\":{\"href\":\"http://m.espn.go.com/mlb/");
+		sb.append(kind).append("?id=").append(id).append("\"}}}");
+	}
+
+	static byte[] read(File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream((int)file.length());
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+		finally {
+			in.close();
+		}
+	}
+}
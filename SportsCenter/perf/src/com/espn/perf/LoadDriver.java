@@ -0,0 +1,199 @@
+package com.espn.perf;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.espn.DataAccess;
+import com.espn.DataLoader;
+import com.espn.ESPNDataAccess;
+import com.espn.Grouping;
+import com.espn.LoadMetrics;
+import com.espn.NewsItem;
+import com.espn.Player;
+import com.espn.RateLimiter;
+import com.espn.TeamGrouping;
+
+// LoadDriver runs the loader stack against a StandInServer and reports throughput and latency percentiles, so a
+// change to the data path can be judged by numbers from a build machine.  Each worker walks the baseball tree the way
+// the app does (leagues, then teams, then a team's players, plus news) for a number of iterations.
+//
+// Build it against src/, perf/src/ and perf/shim/ (for android.util.Log), with android.jar, the app's generated R and
+// HttpClient 4.0 on the classpath, and run with the fixture directory as the only argument.  Everything else is a
+// system property:
+//
+//   perf.mode        fetch (default): straight to ESPNDataAccess, a full download and parse every time
+//                    revalidate: DataLoader with forced refreshes, so mostly conditional requests and 304s
+//                    cached: DataLoader as the app uses it; after the first pass everything is a memory hit
+//   perf.threads     concurrent workers (4)
+//   perf.iterations  walks per worker (25)
+//   perf.proxy       true to go through the stand-in's proxy endpoint (false)
+//   perf.latency, perf.jitter, perf.bandwidth, perf.errors, perf.misses
+//                    server settings; ms, ms, bytes/s, and fractions of requests
+//   perf.athletes    if set, serve a synthetic league-wide athletes list of this many instead of the fixture
+public class LoadDriver {
+	// What every worker does once per iteration
+	private interface Walk {
+		void run() throws Exception;
+	}
+
+	public static void main(String[] args) throws Exception {
+		StandInServer server = new StandInServer(args.length > 0 ? new File(args[0]) : null);
+		server.setLatency(Long.getLong("perf.latency", 0), Long.getLong("perf.jitter", 0));
+		server.setBandwidth(Long.getLong("perf.bandwidth", 0));
+		server.setErrorRate(Double.parseDouble(System.getProperty("perf.errors", "0")));
+		server.setProxyMissRate(Double.parseDouble(System.getProperty("perf.misses", "0")));
+		if (System.getProperty("perf.athletes") != null) {
+			server.put("baseball/mlb/athletes", Fixtures.athletes("baseball", "MLB", Integer.getInteger("perf.athletes")));
+		}
+		server.start(0);
+
+		try {
+			new LoadDriver(server).run(System.getProperty("perf.mode", "fetch"), Integer.getInteger("perf.threads", 4),
+				Integer.getInteger("perf.iterations", 25), Boolean.getBoolean("perf.proxy"));
+		}
+		finally {
+			server.stop();
+		}
+	}
+
+	public LoadDriver(StandInServer server) {
+		mServer = server;
+	}
+
+	public void run(String mode, int threads, final int iterations, boolean proxy) throws Exception {
+		// The stand-in has no rate limit to protect, so don't let ours be what we end up measuring
+		DataAccess access = new ESPNDataAccess(mServer.getApiUrlBase(), proxy ? mServer.getProxyPrefix() : "", "perf",
+			new RateLimiter("perf-api", 10000, 1000), new RateLimiter("perf-proxy", 10000, 1000));
+		final Walk walk;
+		if (mode.equals("fetch")) {
+			walk = fetchWalk(access);
+		}
+		else if (mode.equals("revalidate") || mode.equals("cached")) {
+			walk = loaderWalk(new DataLoader(access, null), mode.equals("revalidate"));
+		}
+		else {
+			throw new IllegalArgumentException("Unknown mode " + mode);
+		}
+
+		// One untimed pass so connection setup and class loading aren't in the numbers
+		walk.run();
+		mLatencies.clear();
+
+		ExecutorService workers = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		for (int i = 0; i < threads; i++) {
+			workers.execute(new Runnable() {
+				@Override
+				public void run() {
+					for (int n = 0; n < iterations; n++) {
+						try {
+							walk.run();
+						}
+						catch (Exception e) {
+							synchronized (mLatencies) {
+								mFailures++;
+							}
+						}
+					}
+				}
+			});
+		}
+		workers.shutdown();
+		workers.awaitTermination(1, TimeUnit.HOURS);
+		long elapsed = System.nanoTime() - start;
+
+		report(mode, threads, elapsed);
+	}
+
+	private Walk fetchWalk(final DataAccess access) {
+		final Grouping sport = sport();
+		return new Walk() {
+			@Override
+			public void run() throws Exception {
+				long t = System.nanoTime();
+				LinkedList<Grouping> leagues = time(access.LoadLeaguesFromSport(sport, null), t);
+				t = System.nanoTime();
+				LinkedList<TeamGrouping> teams = time(access.LoadTeamsFromLeague(leagues.getFirst(), null), t);
+				t = System.nanoTime();
+				time(access.LoadAthletesFromLeague(leagues.getFirst(), null).roster(teams.get(mNext++ % teams.size())), t);
+				t = System.nanoTime();
+				time(access.LoadNewsFromGroup(leagues.getFirst(), null), t);
+			}
+		};
+	}
+
+	private Walk loaderWalk(final DataLoader loader, final boolean forceRefresh) {
+		final Grouping sport = sport();
+		return new Walk() {
+			@Override
+			public void run() throws Exception {
+				long t = System.nanoTime();
+				LinkedList<Grouping> leagues = time(loader.LoadLeaguesFromSport(sport, forceRefresh), t);
+				t = System.nanoTime();
+				LinkedList<TeamGrouping> teams = time(loader.LoadTeamsFromLeague(leagues.getFirst(), forceRefresh), t);
+				t = System.nanoTime();
+				LinkedList<Player> players = loader.LoadPlayersFromTeam(teams.get(mNext++ % teams.size()), forceRefresh);
+				time(players, t);
+				t = System.nanoTime();
+				LinkedList<NewsItem> news = loader.LoadNewsFromGroup(leagues.getFirst(), forceRefresh);
+				time(news, t);
+			}
+		};
+	}
+
+	// Hung off a root the way the activity's tree is
+	private static Grouping sport() {
+		Grouping root = new Grouping(Grouping.GroupingType.NONE, "", "", null);
+		Grouping sport = new Grouping(Grouping.GroupingType.SPORT, "Baseball", "Baseball", root);
+		root.add(sport);
+		return sport;
+	}
+
+	// Records how long the load that returned 'result' took since 'start', failing the walk if it came back empty handed
+	private <T> T time(T result, long start) throws Exception {
+		long elapsed = System.nanoTime() - start;
+		if (result == null) {
+			throw new Exception("Load failed");
+		}
+		synchronized (mLatencies) {
+			mLatencies.add(elapsed);
+		}
+		return result;
+	}
+
+	private void report(String mode, int threads, long elapsed) {
+		ArrayList<Long> sorted;
+		int failures;
+		synchronized (mLatencies) {
+			sorted = new ArrayList<Long>(mLatencies);
+			failures = mFailures;
+		}
+		Collections.sort(sorted);
+
+		double seconds = elapsed / 1e9;
+		System.out.println("mode=" + mode + " threads=" + threads + " loads=" + sorted.size() + " failedWalks=" + failures);
+		System.out.println(String.format("throughput %.1f loads/s over %.2fs", sorted.size() / seconds, seconds));
+		System.out.println(String.format("latency ms  p50 %.2f  p90 %.2f  p95 %.2f  p99 %.2f  max %.2f", percentile(sorted, 50),
+			percentile(sorted, 90), percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100)));
+		System.out.println("server " + mServer);
+		System.out.print(LoadMetrics.getInstance().snapshot());
+	}
+
+	private static double percentile(ArrayList<Long> sorted, int p) {
+		if (sorted.isEmpty()) {
+			return 0;
+		}
+		int index = (int)Math.ceil(p / 100.0 * sorted.size()) - 1;
+		return sorted.get(Math.max(0, index)) / 1e6;
+	}
+
+	private final StandInServer mServer;
+	private final ArrayList<Long> mLatencies = new ArrayList<Long>();
+	private int mFailures = 0;
+	private volatile int mNext = 0;		// which team's players to load next; sharing it loosely across workers is fine
+}
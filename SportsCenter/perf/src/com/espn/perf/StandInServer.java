@@ -0,0 +1,320 @@
+package com.espn.perf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+// StandInServer plays the part of api.espn.com (and of the caching proxy in front of it) for measuring the data path
+// on a desktop JVM, without the live service or its rate limit.  It serves fixed payloads: a request for
+// /v1/sports/baseball/mlb/teams is answered with <fixture dir>/baseball/mlb/teams.json, or with whatever was put() for
+// "baseball/mlb/teams".
+//
+// Point ESPNDataAccess at getApiUrlBase() to talk to it directly, or additionally at getProxyPrefix() to go through
+// its proxy endpoint, which marks a configurable fraction of responses with the leading '1' the real proxy uses to
+// say it had to go to ESPN.  Latency, bandwidth and the error rate are all adjustable while it runs.  It honours
+// If-None-Match with a 304, and gzips for clients that ask.
+public class StandInServer {
+	private static final String API_PATH = "/v1/sports/";
+	private static final String PROXY_PATH = "/proxy";
+
+	// One payload, with its validators worked out once
+	private static class Fixture {
+		Fixture(byte[] body, String lastModified) {
+			mBody = body;
+			mETag = "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+			mLastModified = lastModified;
+		}
+
+		// Compressed once, the first time a client asks, since compressing isn't what we're here to measure
+		synchronized byte[] gzipped() throws IOException {
+			if (mGzipped == null) {
+				mGzipped = gzip(mBody);
+			}
+			return mGzipped;
+		}
+
+		final byte[] mBody;
+		final String mETag;
+		final String mLastModified;
+		private byte[] mGzipped;
+	}
+
+	public StandInServer(File fixtureDir) {
+		mFixtureDir = fixtureDir;
+		SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+		format.setTimeZone(TimeZone.getTimeZone("GMT"));
+		mLastModified = format.format(new Date());
+	}
+
+	// Serves 'body' for 'path' ("baseball/mlb/athletes"), ahead of anything in the fixture directory
+	public void put(String path, String body) {
+		try {
+			mFixtures.put(path, new Fixture(body.getBytes("UTF-8"), mLastModified));
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	// Every response waits 'millis', plus up to 'jitterMillis' more, before its headers go out
+	public void setLatency(long millis, long jitterMillis) {
+		mLatency = millis;
+		mJitter = jitterMillis;
+	}
+
+	// Paces each response body to 'bytesPerSecond'; 0 sends as fast as the socket takes it
+	public void setBandwidth(long bytesPerSecond) {
+		mBandwidth = bytesPerSecond;
+	}
+
+	// The fraction of requests answered with a 503 instead of their payload
+	public void setErrorRate(double rate) {
+		mErrorRate = rate;
+	}
+
+	// The fraction of proxied responses that claim the proxy had to go to ESPN for them
+	public void setProxyMissRate(double rate) {
+		mProxyMissRate = rate;
+	}
+
+	// Starts serving on 'port' of the loopback interface; 0 picks a free one
+	public void start(int port) throws IOException {
+		// Otherwise Nagle holds the body back behind the headers and every response picks up a delayed ack's 40ms
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+		mServer = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 64);
+		mServer.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					serve(exchange);
+				}
+				finally {
+					exchange.close();
+				}
+			}
+		});
+		mExecutor = Executors.newCachedThreadPool();
+		mServer.setExecutor(mExecutor);
+		mServer.start();
+	}
+
+	public void stop() {
+		if (mServer != null) {
+			mServer.stop(0);
+			mExecutor.shutdownNow();
+			mServer = null;
+		}
+	}
+
+	public int getPort() {
+		return mServer.getAddress().getPort();
+	}
+
+	public String getApiUrlBase() {
+		return "http://127.0.0.1:" + getPort() + "/v1/sports";
+	}
+
+	public String getProxyPrefix() {
+		return "http://127.0.0.1:" + getPort() + PROXY_PATH + "?url=";
+	}
+
+	public long getRequestCount() {
+		return mRequests.get();
+	}
+
+	public long getNotModifiedCount() {
+		return mNotModified.get();
+	}
+
+	public long getErrorCount() {
+		return mErrors.get();
+	}
+
+	public long getProxyMissCount() {
+		return mProxyMisses.get();
+	}
+
+	public long getBytesSent() {
+		return mBytesSent.get();
+	}
+
+	@Override
+	public String toString() {
+		return "requests=" + getRequestCount() + " notModified=" + getNotModifiedCount() + " errors=" + getErrorCount() +
+			" proxyMisses=" + getProxyMissCount() + " bytesSent=" + getBytesSent();
+	}
+
+	private void serve(HttpExchange exchange) throws IOException {
+		mRequests.incrementAndGet();
+		String uri = exchange.getRequestURI().toString();
+		boolean proxied = uri.startsWith(PROXY_PATH);
+		if (proxied) {
+			// The target isn't escaped, so everything after 'url=' is the ESPN url, query and all
+			int url = uri.indexOf("url=");
+			uri = url != -1 ? uri.substring(url + 4) : "";
+			int path = uri.indexOf(API_PATH);
+			uri = path != -1 ? uri.substring(path) : "";
+		}
+
+		delay();
+		if (mErrorRate > 0 && nextDouble() < mErrorRate) {
+			mErrors.incrementAndGet();
+			send(exchange, 503, "Service Unavailable".getBytes("UTF-8"), false);
+			return;
+		}
+
+		Fixture fixture = uri.startsWith(API_PATH) ? lookup(stripQuery(uri.substring(API_PATH.length()))) : null;
+		if (fixture == null) {
+			send(exchange, 404, "Not Found".getBytes("UTF-8"), false);
+			return;
+		}
+
+		exchange.getResponseHeaders().set("ETag", fixture.mETag);
+		exchange.getResponseHeaders().set("Last-Modified", fixture.mLastModified);
+		String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+		if (fixture.mETag.equals(ifNoneMatch)) {
+			// The JDK's server hangs up after a 304, so a revalidation here also pays for a new connection
+			mNotModified.incrementAndGet();
+			exchange.sendResponseHeaders(304, -1);
+			return;
+		}
+
+		String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+		boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+		byte[] body;
+		if (proxied && mProxyMissRate > 0 && nextDouble() < mProxyMissRate) {
+			mProxyMisses.incrementAndGet();
+			body = new byte[fixture.mBody.length + 1];
+			body[0] = '1';
+			System.arraycopy(fixture.mBody, 0, body, 1, fixture.mBody.length);
+			body = gzip ? gzip(body) : body;
+		}
+		else {
+			body = gzip ? fixture.gzipped() : fixture.mBody;
+		}
+		send(exchange, 200, body, gzip);
+	}
+
+	private Fixture lookup(String path) throws IOException {
+		Fixture fixture = mFixtures.get(path);
+		if (fixture == null && mFixtureDir != null && path.indexOf("..") == -1) {
+			File file = new File(mFixtureDir, path + ".json");
+			if (file.isFile()) {
+				fixture = new Fixture(Fixtures.read(file), mLastModified);
+				Fixture raced = mFixtures.putIfAbsent(path, fixture);
+				fixture = raced != null ? raced : fixture;
+			}
+		}
+		return fixture;
+	}
+
+	// 'body' is sent as is; 'gzipped' says whether it is already compressed
+	private void send(HttpExchange exchange, int status, byte[] body, boolean gzipped) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+		if (gzipped) {
+			exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+		}
+
+		if (exchange.getRequestMethod().equals("HEAD")) {
+			exchange.sendResponseHeaders(status, -1);
+			return;
+		}
+
+		exchange.sendResponseHeaders(status, body.length);
+		OutputStream out = exchange.getResponseBody();
+		long bandwidth = mBandwidth;
+		if (bandwidth <= 0) {
+			out.write(body);
+		}
+		else {
+			// Send in slices of about 20ms worth, sleeping off whatever we're ahead of schedule
+			int slice = (int)Math.max(512, bandwidth / 50);
+			long start = System.nanoTime();
+			for (int sent = 0; sent < body.length; sent += slice) {
+				int length = Math.min(slice, body.length - sent);
+				out.write(body, sent, length);
+				out.flush();
+				long due = (sent + length) * 1000L / bandwidth - (System.nanoTime() - start) / 1000000;
+				if (due > 0) {
+					sleep(due);
+				}
+			}
+		}
+		out.close();
+		mBytesSent.addAndGet(body.length);
+	}
+
+	private void delay() {
+		long wait = mLatency;
+		if (mJitter > 0) {
+			wait += (long)(nextDouble() * mJitter);
+		}
+		if (wait > 0) {
+			sleep(wait);
+		}
+	}
+
+	private double nextDouble() {
+		synchronized (mRandom) {
+			return mRandom.nextDouble();
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static byte[] gzip(byte[] body) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4 + 64);
+		GZIPOutputStream out = new GZIPOutputStream(bytes);
+		out.write(body);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	private static String stripQuery(String path) {
+		int query = path.indexOf('?');
+		return query != -1 ? path.substring(0, query) : path;
+	}
+
+	private final File mFixtureDir;
+	private final String mLastModified;
+	private final ConcurrentHashMap<String, Fixture> mFixtures = new ConcurrentHashMap<String, Fixture>();
+	private final Random mRandom = new Random(42);	// fixed seed, so runs inject the same faults
+	private HttpServer mServer;
+	private ExecutorService mExecutor;
+	private volatile long mLatency = 0;
+	private volatile long mJitter = 0;
+	private volatile long mBandwidth = 0;
+	private volatile double mErrorRate = 0;
+	private volatile double mProxyMissRate = 0;
+	private final AtomicLong mRequests = new AtomicLong();
+	private final AtomicLong mNotModified = new AtomicLong();
+	private final AtomicLong mErrors = new AtomicLong();
+	private final AtomicLong mProxyMisses = new AtomicLong();
+	private final AtomicLong mBytesSent = new AtomicLong();
+}
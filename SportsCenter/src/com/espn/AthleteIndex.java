@@ -0,0 +1,118 @@
+package com.espn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+
+import com.espn.ScoreCenter.R;
+
+// AthleteIndex is a league's athletes, from one download of its /athletes endpoint, partitioned by the team each one
+// plays for.  The api has no per-team athletes call, so this is what every roster in the league is answered from:
+// one request and one parse per league, and roster() is a lookup plus a walk over that team's own athletes.
+//
+// Teams are matched on their abbreviation, case folded the way CacheKey does it.  If a response carried no team
+// affiliations at all, there is nothing to partition on, and every team gets the whole list, as we always used to.
+//
+// This is what sits in the cache for the life of the league, so athletes are kept compact: the id as an int, the
+// position as a Positions code, and the team as a small number into our table of teams, each abbreviation held once.
+public class AthleteIndex {
+	public static final short NO_TEAM = -1;
+
+	// One athlete as the api describes them; roster() makes the Players, once it knows which team to hang them off
+	public static class Athlete {
+		Athlete(int id, String displayName, String shortName, byte position, short team) {
+			mID = id;
+			mDisplayName = displayName;
+			mShortName = shortName;
+			mPosition = position;
+			mTeam = team;
+		}
+
+		public String getPosition() {
+			return Positions.name(mPosition);
+		}
+
+		public final int mID;				// the api's athlete id, or 0 if we weren't told
+		public final String mDisplayName;
+		public final String mShortName;		// the same String as mDisplayName when the api didn't give a short one
+		public final byte mPosition;		// a Positions code
+		public final short mTeam;			// where their team is in our table (see getTeam()), or NO_TEAM
+	}
+
+	// 'team' is the abbreviation of the team they play for, or null if we weren't told
+	public void add(int id, String displayName, String shortName, String position, String team) {
+		if (shortName == null || shortName.equals(displayName)) {
+			shortName = displayName;
+		}
+
+		short code = team != null ? teamCode(team.toLowerCase(Locale.US)) : NO_TEAM;
+		Athlete athlete = new Athlete(id, displayName, shortName, Positions.code(position), code);
+		mAthletes.add(athlete);
+		if (code != NO_TEAM) {
+			mRosters.get(code).add(athlete);
+		}
+	}
+
+	// The abbreviation 'athlete''s team goes by (case folded), or null
+	public String getTeam(Athlete athlete) {
+		return athlete.mTeam != NO_TEAM ? mTeamNames.get(athlete.mTeam) : null;
+	}
+
+	// The athletes who play for 'team', as Players on it
+	public LinkedList<Player> roster(TeamGrouping team) {
+		List<Athlete> athletes;
+		if (mTeamNames.isEmpty()) {
+			athletes = mAthletes;
+		}
+		else {
+			Short code = mTeamCodes.get(team.mAbbreviation.toLowerCase(Locale.US));
+			athletes = code != null ? mRosters.get(code) : Collections.<Athlete>emptyList();
+		}
+
+		LinkedList<Player> ret = new LinkedList<Player>();
+		for (Athlete athlete : athletes) {
+			Player player = new Player(athlete.mDisplayName, athlete.mShortName, team);
+			player.mID = athlete.mID;
+			player.mPosition = athlete.getPosition();
+			player.mHeadshot = R.drawable.fsm;
+			ret.add(player);
+		}
+		return ret;
+	}
+
+	// Everyone, in the order the api listed them
+	public List<Athlete> athletes() {
+		return Collections.unmodifiableList(mAthletes);
+	}
+
+	public int size() {
+		return mAthletes.size();
+	}
+
+	// How many teams we have athletes for; 0 if the response didn't say who plays where
+	public int getTeamCount() {
+		return mTeamNames.size();
+	}
+
+	private short teamCode(String team) {
+		Short ret = mTeamCodes.get(team);
+		if (ret == null) {
+			if (mTeamNames.size() > Short.MAX_VALUE) {
+				return NO_TEAM;
+			}
+			ret = (short)mTeamNames.size();
+			mTeamNames.add(StringPool.intern(team));
+			mTeamCodes.put(team, ret);
+			mRosters.add(new ArrayList<Athlete>());
+		}
+		return ret;
+	}
+
+	private final ArrayList<Athlete> mAthletes = new ArrayList<Athlete>();
+	private final ArrayList<String> mTeamNames = new ArrayList<String>();				// by team code
+	private final ArrayList<ArrayList<Athlete>> mRosters = new ArrayList<ArrayList<Athlete>>();	// ... and the same
+	private final HashMap<String, Short> mTeamCodes = new HashMap<String, Short>();
+}
@@ -0,0 +1,86 @@
+package com.espn;
+
+// CacheKey identifies one load in DataLoader's caches: what kind of data, and the sport/league/team path it was
+// loaded for.  The path is canonical (lowercased abbreviations), so two Grouping objects for the same league produce
+// equal keys.  The hash is computed once up front; Grouping hands out the same key object for every lookup, so a
+// cache hit costs no allocation at all.
+public final class CacheKey {
+	static CacheKey forGroup(DataType type, Grouping group) {
+		GroupPath path = group.getPath();
+		switch (type) {
+		case LEAGUES:
+			return new CacheKey(type, path.getSportPath());
+		case TEAMS:
+		case NEWS:
+		case PLAYERS:
+		default:
+			// News comes from the league's feed even when asked for at team level, and every roster in a league from
+			// its one AthleteIndex, so they are keyed the same way
+			return new CacheKey(type, path.getLeaguePath());
+		}
+	}
+
+	public CacheKey(DataType type, String sport, String league, String team) {
+		this(type, sport, league, team, GroupPath.hash(sport, league, team));
+	}
+
+	// Takes the segments, and their hash, straight from 'path'
+	public CacheKey(DataType type, GroupPath path) {
+		this(type, path.mSport, path.mLeague, path.mTeam, path.hashCode());
+	}
+
+	private CacheKey(DataType type, String sport, String league, String team, int pathHash) {
+		mType = type;
+		mSport = sport;
+		mLeague = league;
+		mTeam = team;
+		mHash = 31 * 31 * 31 * type.hashCode() + pathHash;
+	}
+
+	@Override
+	public int hashCode() {
+		return mHash;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof CacheKey)) {
+			return false;
+		}
+
+		CacheKey other = (CacheKey)o;
+		return mHash == other.mHash && mType == other.mType && equal(mSport, other.mSport)
+				&& equal(mLeague, other.mLeague) && equal(mTeam, other.mTeam);
+	}
+
+	// e.g. "TEAMS:baseball/mlb".  Stable across launches, so the disk tier uses it as its key.
+	@Override
+	public String toString() {
+		String s = mString;
+		if (s == null) {
+			StringBuilder sb = new StringBuilder(mType.name()).append(':').append(mSport);
+			if (mLeague != null) {
+				sb.append('/').append(mLeague);
+			}
+			if (mTeam != null) {
+				sb.append('/').append(mTeam);
+			}
+			s = mString = sb.toString();
+		}
+		return s;
+	}
+
+	private static boolean equal(String a, String b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	public final DataType mType;
+	public final String mSport;
+	public final String mLeague;
+	public final String mTeam;
+	private final int mHash;
+	private volatile String mString = null;
+}
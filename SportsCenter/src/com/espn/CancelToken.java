@@ -0,0 +1,89 @@
+package com.espn;
+
+import java.util.ArrayList;
+
+import org.apache.http.client.methods.HttpUriRequest;
+
+// CancelToken lets whoever started a load call it off.  Loads check it before they queue and before they send, wait on
+// it rather than sleeping while rate limited, and attach() their requests to it so that cancel() can abort one that is
+// already on the wire.  A token only goes one way: once cancelled, it stays cancelled, so make a new one per batch of
+// loads (the activity uses one per selected group).
+public class CancelToken {
+	public void cancel() {
+		ArrayList<HttpUriRequest> requests;
+		ArrayList<Runnable> listeners;
+		synchronized (this) {
+			if (mCancelled) {
+				return;
+			}
+
+			mCancelled = true;
+			requests = new ArrayList<HttpUriRequest>(mRequests);
+			listeners = new ArrayList<Runnable>(mListeners);
+			mRequests.clear();
+			mListeners.clear();
+			notifyAll();
+		}
+
+		// Outside the lock; an abort closes sockets, and a listener may well take locks of its own
+		for (HttpUriRequest request : requests) {
+			request.abort();
+		}
+		for (Runnable listener : listeners) {
+			listener.run();
+		}
+	}
+
+	public boolean isCancelled() {
+		return mCancelled;
+	}
+
+	// Has cancel() abort 'request'.  Returns false, having aborted it already, if we were cancelled before it got here.
+	public boolean attach(HttpUriRequest request) {
+		synchronized (this) {
+			if (!mCancelled) {
+				mRequests.add(request);
+				return true;
+			}
+		}
+
+		request.abort();
+		return false;
+	}
+
+	// Once 'request' is done with, body and all
+	public synchronized void detach(HttpUriRequest request) {
+		mRequests.remove(request);
+	}
+
+	// Runs 'listener' on the cancelling thread when we're cancelled, or right away if we already are
+	public void addListener(Runnable listener) {
+		synchronized (this) {
+			if (!mCancelled) {
+				mListeners.add(listener);
+				return;
+			}
+		}
+
+		listener.run();
+	}
+
+	public synchronized void removeListener(Runnable listener) {
+		mListeners.remove(listener);
+	}
+
+	// Sleeps for 'millis', or until we're cancelled if that comes first.  Returns false if we were cancelled.
+	public synchronized boolean sleep(long millis) throws InterruptedException {
+		long until = System.currentTimeMillis() + millis;
+		long left = millis;
+		while (!mCancelled && left > 0) {
+			wait(left);
+			left = until - System.currentTimeMillis();
+		}
+		return !mCancelled;
+	}
+
+	private volatile boolean mCancelled = false;
+	private final ArrayList<HttpUriRequest> mRequests = new ArrayList<HttpUriRequest>(2);
+	private final ArrayList<Runnable> mListeners = new ArrayList<Runnable>(2);
+}
@@ -0,0 +1,75 @@
+package com.espn;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Passes reads through to the wrapped stream, keeping count of the bytes that went by, and of the time spent waiting
+// on the wrapped stream for them
+public class CountingInputStream extends FilterInputStream {
+	public CountingInputStream(InputStream in) {
+		super(in);
+	}
+
+	@Override
+	public int read() throws IOException {
+		long start = System.nanoTime();
+		int b;
+		try {
+			b = super.read();
+		}
+		finally {
+			mReadNanos += System.nanoTime() - start;
+		}
+		if (b != -1) {
+			mCount++;
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int count) throws IOException {
+		long start = System.nanoTime();
+		int read;
+		try {
+			read = super.read(buffer, offset, count);
+		}
+		finally {
+			mReadNanos += System.nanoTime() - start;
+		}
+		if (read > 0) {
+			mCount += read;
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(long count) throws IOException {
+		long start = System.nanoTime();
+		long skipped;
+		try {
+			skipped = super.skip(count);
+		}
+		finally {
+			mReadNanos += System.nanoTime() - start;
+		}
+		mCount += skipped;
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	public long getCount() {
+		return mCount;
+	}
+
+	public long getReadNanos() {
+		return mReadNanos;
+	}
+
+	private long mCount = 0;
+	private long mReadNanos = 0;
+}
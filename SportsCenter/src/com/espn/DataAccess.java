@@ -2,9 +2,10 @@ package com.espn;
 
 import java.util.LinkedList;
 
+// A null return means the load failed, unless ctx.mNotModified is set, in which case the caller's copy is still current
 public interface DataAccess {
-	public LinkedList<Player> LoadPlayersFromTeam(TeamGrouping team);
-	public LinkedList<Grouping> LoadLeaguesFromSport(Grouping group);
-	public LinkedList<TeamGrouping> LoadTeamsFromLeague(Grouping group);
-	public LinkedList<NewsItem> LoadNewsFromGroup(Grouping group);
+	public AthleteIndex LoadAthletesFromLeague(Grouping group, RequestContext ctx);
+	public LinkedList<Grouping> LoadLeaguesFromSport(Grouping group, RequestContext ctx);
+	public LinkedList<TeamGrouping> LoadTeamsFromLeague(Grouping group, RequestContext ctx);
+	public LinkedList<NewsItem> LoadNewsFromGroup(Grouping group, RequestContext ctx);
 }
@@ -1,36 +1,197 @@
 package com.espn;
 
-import java.util.LinkedHashMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
+import android.content.ComponentCallbacks2;
+import android.content.Context;
 import android.util.Log;
 
 // DataLoader will load data from one or more DataAccess objects, and cache that data.  When
 // requested again, we will just re-use the cached version, unless the data has become stale (too old), or the requester
 // demands a re-load.
+//
+// There are two cache tiers: memory, and (if we were given a directory) a DiskCache that outlives the process.  How
+// long an entry is good for depends on its DataType; see FreshnessPolicy.  Stale entries are handed out immediately and
+// revalidated in the background, so navigation (and a cold start from the disk tier) doesn't wait on the network.
+//
+// Loads run by LoadScheduler's speculative pool, and revalidations, are background work: their fetches never wait for
+// a rate limit permit, so they can't hold up one the user is waiting on.  One that finds no permit free is put off,
+// and a speculative load goes back in the scheduler's queue to try again later.
+//
+// The app has one DataLoader (see acquire()), so its caches belong to the process rather than to an activity: a
+// rotation keeps the memory tier, and only one DiskCache ever has the journal open.
 public class DataLoader {
-	private LinkedHashMap<String, Object> mCache = new LinkedHashMap<String, Object>(200, 0.75f, true);
+	// A cached result, along with what we need to ask the server whether it is still current
+	private static class CacheEntry {
+		CacheEntry(Object value, String etag, String lastModified, long fetchTime) {
+			mValue = value;
+			mETag = etag;
+			mLastModified = lastModified;
+			mFetchTime = fetchTime;
+		}
+
+		final Object mValue;
+		final String mETag;
+		final String mLastModified;
+		volatile long mFetchTime;
+	}
+
+	// How to fetch one kind of data from mDataAccess, and how to store it on disk.  'previous' is the value we have
+	// cached for the key, if any, for data that is refreshed by merging what's new into what we had.
+	private static abstract class Loader<T> {
+		abstract T fetch(RequestContext ctx, T previous);
+		abstract void write(DataOutputStream out, T value) throws IOException;
+		abstract T read(DataInputStream in) throws IOException;
+	}
+
+	// Told about every fetch that went to the network, for accounting; the Prefetcher's byte budget, say.  Called on
+	// the fetching thread.
+	public interface FetchListener {
+		void onFetch(CacheKey key, long wireBytes);
+
+		// ... and about every background fetch that was put off instead, for want of a permit
+		void onThrottled(CacheKey key);
+	}
+
+	// A fetch in progress.  Everyone else asking for the same key while it runs waits for, and shares, its result.  The
+	// fetch itself is only called off once every caller that could cancel has, and none that couldn't is waiting.
+	private static class Flight {
+		// Waits for the result, giving up (with null) if 'cancel' is cancelled first
+		synchronized Object await(CancelToken cancel) throws InterruptedException {
+			while (!mDone && (cancel == null || !cancel.isCancelled())) {
+				wait();
+			}
+			return mDone ? mResult : null;
+		}
+
+		synchronized void finish(Object result) {
+			mResult = result;
+			mDone = true;
+			notifyAll();
+		}
+
+		synchronized void wake() {
+			notifyAll();
+		}
+
+		final CancelToken mCancel = new CancelToken();
+		int mCallers = 0;		// callers still interested in the result; guarded by mInFlight
+		volatile boolean mThrottled = false;	// it was background work, put off for want of a permit
+		private boolean mDone = false;
+		private Object mResult = null;
+	}
+
+	// The in-memory tier gets an eighth of the heap; evicted entries can still come back from disk
+	private MemoryCache<CacheKey, CacheEntry> mCache = new MemoryCache<CacheKey, CacheEntry>(Runtime.getRuntime().maxMemory() / 8,
+			new MemoryCache.Weigher<CacheEntry>() {
+				@Override
+				public long weigh(CacheEntry entry) {
+					return 64 + EntitySizes.estimate(entry.mValue);
+				}
+			});
+	private HashMap<CacheKey, Flight> mInFlight = new HashMap<CacheKey, Flight>();
+	private DiskCache mDiskCache = null;
+	private Set<CacheKey> mRevalidating = Collections.newSetFromMap(new ConcurrentHashMap<CacheKey, Boolean>());	// queued or running
+	private ConcurrentHashMap<CacheKey, Long> mRevalidateFailures = new ConcurrentHashMap<CacheKey, Long>();	// key -> when it last failed
+	private FreshnessPolicy mPolicy = new FreshnessPolicy();
 	private DataAccess mDataAccess;
-	
-	DataLoader() {
-		mDataAccess = new ESPNDataAccess();
+	private LoadMetrics mMetrics = LoadMetrics.getInstance();
+	private volatile FetchListener mFetchListener = null;
+	private int mFetches = 0;		// calls we actually made to mDataAccess
+	private int mCoalesced = 0;		// calls we didn't make, because the same fetch was already running
+	private static final long sRevalidateRetry = 30000;	// after a revalidation fails, we serve the stale copy this long before trying again
+	private static DataLoader sInstance = null;
+	private static int sUsers = 0;	// acquire()s not yet release()d
+
+	// Revalidations and journal housekeeping, for every loader there is, on one thread that won't keep the process alive
+	private static final ExecutorService sBackground = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "DataLoader");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	// 'cacheDir' is where the disk tier lives; pass null to keep everything in memory.  The journal is opened in the
+	// background, never on the caller's thread.
+	public DataLoader(DataAccess dataAccess, File cacheDir) {
+		mDataAccess = dataAccess;
+		if (cacheDir != null) {
+			mDiskCache = new DiskCache(cacheDir);
+			openDiskCache();
+		}
 	}
-	
+
+	// The app's loader, for an activity to use from its onCreate() until it calls release() from onDestroy()
+	public static synchronized DataLoader acquire(Context context) {
+		if (sInstance == null) {
+			sInstance = new DataLoader(new ESPNDataAccess(), context.getApplicationContext().getCacheDir());
+		}
+		else if (sUsers == 0) {
+			sInstance.openDiskCache();
+		}
+		sUsers++;
+		return sInstance;
+	}
+
+	// Once the last user lets go, the journal is closed; the memory tier lasts as long as the process does
+	public static synchronized void release() {
+		if (sUsers > 0 && --sUsers == 0) {
+			sInstance.setFetchListener(null);
+			sInstance.closeDiskCache();
+		}
+	}
+
 	public LinkedList<Player> LoadPlayersFromTeam(TeamGrouping team) {
+		return LoadPlayersFromTeam(team, false);
+	}
+
+	// 'forceRefresh' skips the cache and goes to the server, e.g. when the user asks for a reload
+	public LinkedList<Player> LoadPlayersFromTeam(TeamGrouping team, boolean forceRefresh) {
+		return LoadPlayersFromTeam(team, forceRefresh, null);
+	}
+
+	// 'cancel' calls the load off; it then returns null, and the fetch behind it is aborted unless someone else is
+	// waiting on it too.  It may be null.
+	public LinkedList<Player> LoadPlayersFromTeam(TeamGrouping team, boolean forceRefresh, CancelToken cancel) {
+		// Every team in a league shares the league's index, so only the first roster we're asked for costs a fetch
+		AthleteIndex athletes = LoadAthletesFromLeague(team.getLeague(), forceRefresh, cancel);
+		return athletes != null ? athletes.roster(team) : null;
+	}
+
+	public AthleteIndex LoadAthletesFromLeague(final Grouping league, boolean forceRefresh, CancelToken cancel) {
 		try {
-			String key = "LoadPlayersFromTeam" + team.getSport().mName + team.getLeague().mName + team.mName;
-			LinkedList<Player> ret = (LinkedList<Player>)get(key);
-			if (ret == null) {
-				ret = mDataAccess.LoadPlayersFromTeam(team);
-	
-				if (ret == null) {
-					Log.e("DataLoader", "Unable to retreive players from team '" + team.mName + "'");
-					return null;
+			CacheKey key = league.getCacheKey(DataType.PLAYERS);
+			return load(key, "athletes from league '" + league.mName + "'", forceRefresh, cancel, new Loader<AthleteIndex>() {
+				@Override
+				AthleteIndex fetch(RequestContext ctx, AthleteIndex previous) {
+					return mDataAccess.LoadAthletesFromLeague(league, ctx);
 				}
-				set(key, ret);
-			}
-					
-			return ret;
+
+				@Override
+				void write(DataOutputStream out, AthleteIndex value) throws IOException {
+					EntityCodec.writeAthletes(out, value);
+				}
+
+				@Override
+				AthleteIndex read(DataInputStream in) throws IOException {
+					return EntityCodec.readAthletes(in);
+				}
+			});
 		}
 		catch(Exception e) {
 			Log.e("DataLoader", "Exception caught trying to load players");
@@ -38,22 +199,34 @@ public class DataLoader {
 			return null;
 		}
 	}
-	
+
 	public LinkedList<TeamGrouping> LoadTeamsFromLeague(Grouping group) {
+		return LoadTeamsFromLeague(group, false);
+	}
+
+	public LinkedList<TeamGrouping> LoadTeamsFromLeague(Grouping group, boolean forceRefresh) {
+		return LoadTeamsFromLeague(group, forceRefresh, null);
+	}
+
+	public LinkedList<TeamGrouping> LoadTeamsFromLeague(final Grouping group, boolean forceRefresh, CancelToken cancel) {
 		try {
-			String key = "LoadTeamsFromLeague" + group.getSport().mName + group.getLeague().mName;
-			LinkedList<TeamGrouping> ret = (LinkedList<TeamGrouping>)get(key);
-			if (ret == null) {
-				ret = mDataAccess.LoadTeamsFromLeague(group);
-	
-				if (ret == null) {
-					Log.e("DataLoader", "Unable to retreive teams from league '" + group.getLeague().mName + "'");
-					return null;
+			CacheKey key = group.getCacheKey(DataType.TEAMS);
+			return load(key, "teams from league '" + group.getLeague().mName + "'", forceRefresh, cancel, new Loader<LinkedList<TeamGrouping>>() {
+				@Override
+				LinkedList<TeamGrouping> fetch(RequestContext ctx, LinkedList<TeamGrouping> previous) {
+					return mDataAccess.LoadTeamsFromLeague(group, ctx);
 				}
-				set(key, ret);
-			}
-					
-			return ret;
+
+				@Override
+				void write(DataOutputStream out, LinkedList<TeamGrouping> value) throws IOException {
+					EntityCodec.writeTeams(out, value);
+				}
+
+				@Override
+				LinkedList<TeamGrouping> read(DataInputStream in) throws IOException {
+					return EntityCodec.readTeams(in, group);
+				}
+			});
 		}
 		catch(Exception e) {
 			Log.e("DataLoader", "Exception caught trying to load teams");
@@ -61,50 +234,426 @@ public class DataLoader {
 			return null;
 		}
 	}
-	
+
 	public LinkedList<Grouping> LoadLeaguesFromSport(Grouping group) {
+		return LoadLeaguesFromSport(group, false);
+	}
+
+	public LinkedList<Grouping> LoadLeaguesFromSport(Grouping group, boolean forceRefresh) {
+		return LoadLeaguesFromSport(group, forceRefresh, null);
+	}
+
+	public LinkedList<Grouping> LoadLeaguesFromSport(final Grouping group, boolean forceRefresh, CancelToken cancel) {
 		try {
-			String key = "LoadLeaguesFromSport" + group.getSport();
-			LinkedList<Grouping> ret = (LinkedList<Grouping>)get(key);
-			if (ret == null) {
-				ret = mDataAccess.LoadLeaguesFromSport(group);
-	
-				if (ret == null) {
-					Log.e("DataLoader", "Unable to retreive leagues from sport '" + group.getSport() + "'");
-					return null;
+			CacheKey key = group.getCacheKey(DataType.LEAGUES);
+			return load(key, "leagues from sport '" + group.getSport().mName + "'", forceRefresh, cancel, new Loader<LinkedList<Grouping>>() {
+				@Override
+				LinkedList<Grouping> fetch(RequestContext ctx, LinkedList<Grouping> previous) {
+					return mDataAccess.LoadLeaguesFromSport(group, ctx);
 				}
-				set(key, ret);
-			}
-			return ret;
+
+				@Override
+				void write(DataOutputStream out, LinkedList<Grouping> value) throws IOException {
+					EntityCodec.writeLeagues(out, value);
+				}
+
+				@Override
+				LinkedList<Grouping> read(DataInputStream in) throws IOException {
+					return EntityCodec.readLeagues(in, group);
+				}
+			});
 		}
 		catch(Exception e) {
 			Log.e("DataLoader", "Exception caught trying to load leagues");
 			e.printStackTrace();
 			return null;
-		}						
+		}
 	}
-	
+
 	public LinkedList<NewsItem> LoadNewsFromGroup(Grouping group) {
-		String key = "LoadNewsFromSport" + group.getSport();
-		LinkedList<NewsItem> ret = (LinkedList<NewsItem>)get(key);
+		return LoadNewsFromGroup(group, false);
+	}
+
+	public LinkedList<NewsItem> LoadNewsFromGroup(Grouping group, boolean forceRefresh) {
+		return LoadNewsFromGroup(group, forceRefresh, null);
+	}
+
+	public LinkedList<NewsItem> LoadNewsFromGroup(Grouping group, boolean forceRefresh, CancelToken cancel) {
+		NewsStore news = LoadNews(group, forceRefresh, cancel);
+		return news != null ? news.items() : null;
+	}
+
+	// The news feed 'group' shares with its league.  A refresh only parses the headlines we don't have yet and merges
+	// them into the store we had, which keeps the newest NewsStore.DEFAULT_CAPACITY of them.
+	public NewsStore LoadNews(final Grouping group, boolean forceRefresh, CancelToken cancel) {
+		CacheKey key = group.getCacheKey(DataType.NEWS);
 		Log.d("LNFS", "Key: " + key);
-		if (ret == null) {
-			ret = mDataAccess.LoadNewsFromGroup(group);
+		return load(key, "news for '" + group.mName + "'", forceRefresh, cancel, new Loader<NewsStore>() {
+			@Override
+			NewsStore fetch(RequestContext ctx, NewsStore previous) {
+				if (previous == null) {
+					previous = new NewsStore();
+				}
+				ctx.mKnownIds = previous.getIds();
+				LinkedList<NewsItem> fresh = mDataAccess.LoadNewsFromGroup(group, ctx);
+				if (fresh == null) {
+					return null;
+				}
+				Log.v("DataLoader", fresh.size() + " new headlines for '" + group.mName + "'");
+				return fresh.isEmpty() ? previous : previous.merge(fresh);
+			}
+
+			@Override
+			void write(DataOutputStream out, NewsStore value) throws IOException {
+				EntityCodec.writeNews(out, value);
+			}
+
+			@Override
+			NewsStore read(DataInputStream in) throws IOException {
+				return EntityCodec.readNewsStore(in);
+			}
+		});
+	}
+
+	// Hook for the activity's onTrimMemory/onLowMemory; gives back more of the memory tier the worse things get
+	public void trimMemory(int level) {
+		if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+			mCache.clear();
+		}
+		else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+			mCache.trimTo(mCache.getMaxWeight() / 4);
+		}
+		else {
+			mCache.trimTo(mCache.getMaxWeight() / 2);
+		}
+		Log.v("DataLoader", "Trimmed memory cache for level " + level + ", " + mCache.getWeight() + " bytes left");
+	}
+
+	public void setFetchListener(FetchListener listener) {
+		mFetchListener = listener;
+	}
+
+	// Whether a load of 'key' would be answered from memory right now, without going to the network
+	public boolean isFresh(CacheKey key) {
+		CacheEntry entry = mCache.peek(key);
+		return entry != null && mPolicy.check(key.mType, entry.mFetchTime) == FreshnessPolicy.Freshness.FRESH;
+	}
+
+	public MemoryCache<CacheKey, ?> getMemoryCache() {
+		return mCache;
+	}
+
+	public FreshnessPolicy getFreshnessPolicy() {
+		return mPolicy;
+	}
+
+	// Everything the data layer has recorded so far, along with the state of our memory tier
+	public LoadMetrics.Snapshot getMetrics() {
+		return mMetrics.snapshot(mCache);
+	}
 
-			if (ret == null) {
-				Log.e("DataLoader", "Unable to retreive news from sport '" + group.getSport() + "'");
+	public int getFetchCount() {
+		synchronized (mInFlight) {
+			return mFetches;
+		}
+	}
+
+	public int getCoalescedCount() {
+		synchronized (mInFlight) {
+			return mCoalesced;
+		}
+	}
+
+	// Returns the cached value for 'key' (from memory, or failing that from disk) unless it has expired, kicking off
+	// a background revalidation if it is stale.  Otherwise we fetch it, unless a fetch for 'key' is already running,
+	// in which case we wait for that one and return its result.
+	@SuppressWarnings("unchecked")
+	private <T> T load(CacheKey key, String what, boolean forceRefresh, CancelToken cancel, Loader<T> loader) {
+		long start = System.nanoTime();
+		try {
+			LoadMetrics.Counter outcome = LoadMetrics.Counter.MEMORY_HITS;
+			CacheEntry entry = get(key);
+			if (entry == null) {
+				entry = restore(key, what, loader);
+				outcome = LoadMetrics.Counter.DISK_HITS;
+			}
+
+			if (entry != null && !forceRefresh) {
+				switch (mPolicy.check(key.mType, entry.mFetchTime)) {
+				case FRESH:
+					mMetrics.increment(key.mType, outcome);
+					return (T)entry.mValue;
+				case STALE:
+					mMetrics.increment(key.mType, outcome);
+					revalidate(key, what, loader);
+					return (T)entry.mValue;
+				case EXPIRED:
+					break;
+				}
+			}
+
+			mMetrics.increment(key.mType, LoadMetrics.Counter.MISSES);
+			boolean optional = LoadScheduler.getCurrentPriority() == LoadScheduler.Priority.SPECULATIVE;
+			return fetchOnce(key, what, forceRefresh, optional, cancel, loader);
+		}
+		finally {
+			mMetrics.record(key.mType, LoadMetrics.Phase.LOAD, System.nanoTime() - start);
+		}
+	}
+
+	// Queues a revalidation of 'key', unless one is already queued or running, or the last one failed not long ago
+	private <T> void revalidate(final CacheKey key, final String what, final Loader<T> loader) {
+		Long failed = mRevalidateFailures.get(key);
+		if (failed != null && System.currentTimeMillis() - failed < sRevalidateRetry) {
+			return;
+		}
+		if (!mRevalidating.add(key)) {
+			return;
+		}
+
+		sBackground.execute(new Runnable() {
+			@Override
+			public void run() {
+				Log.v("DataLoader", "Revalidating " + what + " in the background");
+				try {
+					if (fetchOnce(key, what, false, true, null, loader) != null) {
+						mRevalidateFailures.remove(key);
+					}
+					else {
+						mRevalidateFailures.put(key, System.currentTimeMillis());
+					}
+				}
+				finally {
+					mRevalidating.remove(key);
+				}
+			}
+		});
+	}
+
+	// 'optional' fetches are background work; see the class comment
+	@SuppressWarnings("unchecked")
+	private <T> T fetchOnce(CacheKey key, String what, boolean forceRefresh, boolean optional, CancelToken cancel, Loader<T> loader) {
+		if (cancel != null && cancel.isCancelled()) {
+			return null;
+		}
+
+		CacheEntry entry;
+		Flight flight;
+		boolean joined;
+		synchronized (mInFlight) {
+			flight = mInFlight.get(key);
+			joined = flight != null;
+			if (!joined) {
+				// Check again; a fetch may have finished between our caller's lookup and here
+				entry = get(key);
+				if (entry != null && !forceRefresh && mPolicy.check(key.mType, entry.mFetchTime) == FreshnessPolicy.Freshness.FRESH) {
+					return (T)entry.mValue;
+				}
+
+				mFetches++;
+				flight = new Flight();
+				mInFlight.put(key, flight);
+			}
+			else {
+				entry = null;
+				mCoalesced++;
+				mMetrics.increment(key.mType, LoadMetrics.Counter.COALESCED);
+			}
+			flight.mCallers++;
+		}
+
+		Runnable release = cancel != null ? release(flight) : null;
+		if (release != null) {
+			cancel.addListener(release);
+		}
+		try {
+			if (joined) {
+				Log.v("DataLoader", "Joining fetch in progress for " + what);
+				Object ret;
+				try {
+					ret = flight.await(cancel);
+				}
+				catch (InterruptedException e) {
+					return null;
+				}
+				if (ret != null || !flight.mThrottled) {
+					return (T)ret;
+				}
+				if (optional) {
+					LoadScheduler.requeueCurrent();
+					return null;
+				}
+				// The fetch we joined was put off, but we can wait for a permit; try again, below
+			}
+			else {
+				T ret = null;
+				try {
+					ret = fetch(key, what, entry, optional, flight, loader);
+					return cancel != null && cancel.isCancelled() ? null : ret;
+				}
+				finally {
+					synchronized (mInFlight) {
+						mInFlight.remove(key);
+					}
+					flight.finish(ret);
+				}
+			}
+		}
+		finally {
+			if (release != null) {
+				cancel.removeListener(release);
+			}
+		}
+		return fetchOnce(key, what, forceRefresh, optional, cancel, loader);
+	}
+
+	// What a caller with a CancelToken leaves behind on 'flight', to run if they cancel: they stop waiting, and if
+	// they were the last one waiting, the fetch is called off
+	private Runnable release(final Flight flight) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				boolean abandoned;
+				synchronized (mInFlight) {
+					abandoned = --flight.mCallers == 0;
+				}
+				if (abandoned) {
+					flight.mCancel.cancel();
+				}
+				flight.wake();
+			}
+		};
+	}
+
+	// Asks the server, sending the validators of any stale entry along; a 'not modified' answer just restarts the
+	// entry's clock, without a download or parse.
+	@SuppressWarnings("unchecked")
+	private <T> T fetch(CacheKey key, String what, CacheEntry entry, boolean optional, Flight flight, Loader<T> loader) {
+		CancelToken cancel = flight.mCancel;
+		RequestContext ctx = new RequestContext();
+		ctx.mCancel = cancel;
+		ctx.mOptional = optional;
+		if (entry != null) {
+			ctx.mETag = entry.mETag;
+			ctx.mLastModified = entry.mLastModified;
+		}
+
+		T ret = loader.fetch(ctx, entry != null ? (T)entry.mValue : null);
+		FetchListener listener = mFetchListener;
+		if (ctx.mThrottled) {
+			// Nothing went to the network
+			Log.v("DataLoader", "No permit free, putting off " + what);
+			flight.mThrottled = true;
+			LoadScheduler.requeueCurrent();
+			if (listener != null) {
+				listener.onThrottled(key);
+			}
+			return null;
+		}
+		long now = System.currentTimeMillis();
+		if (listener != null) {
+			listener.onFetch(key, ctx.mWireBytes);
+		}
+		if (ctx.mNotModified && entry != null) {
+			Log.v("DataLoader", "Revalidated " + what);
+			if (equal(ctx.mETag, entry.mETag) && equal(ctx.mLastModified, entry.mLastModified)) {
+				entry.mFetchTime = now;
+			}
+			else {
+				// Same value, but the server wants it asked about with new validators from now on
+				set(key, new CacheEntry(entry.mValue, ctx.mETag, ctx.mLastModified, now));
+			}
+			if (mDiskCache != null) {
+				mDiskCache.touch(key.toString(), now, ctx.mETag, ctx.mLastModified);
+			}
+			return (T)entry.mValue;
+		}
+
+		if (ret == null) {
+			if (cancel.isCancelled()) {
+				Log.v("DataLoader", "Gave up on " + what + ", nobody wants it any more");
 				return null;
 			}
-			set(key, ret);
+			Log.e("DataLoader", "Unable to retreive " + what);
+			return null;
 		}
+
+		set(key, new CacheEntry(ret, ctx.mETag, ctx.mLastModified, now));
+		persist(key, ret, ctx, now, loader);
 		return ret;
 	}
-	
-	private Object get(String key) {
+
+	// Opening scans the journal, and closing may wait on a write, so both happen off the caller's thread; queued on
+	// sBackground, they also happen in the order they were asked for
+	private void openDiskCache() {
+		sBackground.execute(new Runnable() {
+			@Override
+			public void run() {
+				mDiskCache.prepare();
+			}
+		});
+	}
+
+	private void closeDiskCache() {
+		sBackground.execute(new Runnable() {
+			@Override
+			public void run() {
+				mDiskCache.close();
+			}
+		});
+	}
+
+	// Reads 'key' from the disk tier into memory, or returns null if it isn't there
+	private <T> CacheEntry restore(CacheKey key, String what, Loader<T> loader) {
+		if (mDiskCache == null) {
+			return null;
+		}
+
+		DiskCache.Record record = mDiskCache.get(key.toString());
+		if (record == null) {
+			return null;
+		}
+
+		try {
+			T value = loader.read(new DataInputStream(new ByteArrayInputStream(record.mPayload)));
+			CacheEntry entry = new CacheEntry(value, record.mETag, record.mLastModified, record.mFetchTime);
+			set(key, entry);
+			Log.v("DataLoader", "Restored " + what + " from disk");
+			return entry;
+		}
+		catch (IOException e) {
+			Log.e("DataLoader", "Unable to decode " + what + " from disk: " + e.toString());
+			mDiskCache.remove(key.toString());
+			return null;
+		}
+	}
+
+	private <T> void persist(CacheKey key, T value, RequestContext ctx, long fetchTime, Loader<T> loader) {
+		if (mDiskCache == null) {
+			return;
+		}
+
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			loader.write(out, value);
+			out.flush();
+			mDiskCache.put(key.toString(), fetchTime, ctx.mETag, ctx.mLastModified, bytes.toByteArray());
+		}
+		catch (IOException e) {
+			Log.e("DataLoader", "Unable to encode '" + key + "' for disk: " + e.toString());
+		}
+	}
+
+	private static boolean equal(String a, String b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	private CacheEntry get(CacheKey key) {
 		return mCache.get(key);
 	}
-	
-	private void set(String key, Object value) {
+
+	private void set(CacheKey key, CacheEntry value) {
 		mCache.put(key, value);
 	}
 }
@@ -0,0 +1,6 @@
+package com.espn;
+
+// The kinds of data we load.  Each maps to one ESPN api endpoint, and to one DataLoader call.
+public enum DataType {
+	LEAGUES, TEAMS, PLAYERS, NEWS		// PLAYERS are loaded a league at a time, as an AthleteIndex
+}
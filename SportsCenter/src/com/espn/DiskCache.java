@@ -0,0 +1,383 @@
+package com.espn;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+import android.util.Log;
+
+// DiskCache is the second tier behind DataLoader's in-memory cache, so what we loaded last session is still around
+// at the next launch.  It is a single append-only journal: every put(), touch() or remove() appends a record, and an
+// index of the latest record per key is rebuilt by scanning the journal when we open it.  Values are opaque bytes to
+// us; DataLoader decides how they are encoded.
+//
+// Record layout:  type (byte), key (UTF), fetch time (long), etag (UTF, "" for none), last-modified (UTF), then for PUT
+// records only: payload length (int), payload.  A TOUCH record moves a key's fetch time forward and replaces its
+// validators, without rewriting the payload.  A REMOVE record is just the type and key: the key is gone until its next
+// PUT.
+public class DiskCache {
+	private static final int sMagic = 0x53434443;	// 'SCDC'
+	private static final int sVersion = 7;			// bump when the journal or payload encoding changes; old files are dropped
+	private static final byte PUT = 1;
+	private static final byte TOUCH = 2;
+	private static final byte REMOVE = 3;
+	private static final long sCompactThreshold = 256 * 1024;	// don't bother compacting journals smaller than this
+
+	public static class Record {
+		public byte[] mPayload;
+		public long mFetchTime;
+		public String mETag;
+		public String mLastModified;
+	}
+
+	// Where the latest PUT for a key lives in the journal
+	private static class IndexEntry {
+		long mPayloadOffset;
+		int mPayloadLength;
+		int mRecordLength;
+		long mFetchTime;
+		String mETag;
+		String mLastModified;
+	}
+
+	// Doesn't touch the disk; the journal is opened (scanned, and maybe compacted) by prepare() or on first use
+	public DiskCache(File dir) {
+		mFile = new File(dir, "dataloader.journal");
+	}
+
+	// Opens the journal now, rather than on first use, so the caller can choose the thread that pays for it
+	public synchronized void prepare() {
+		if (mOpened) {
+			return;
+		}
+		mOpened = true;
+
+		try {
+			open();
+			if (mFile.length() > sCompactThreshold && mFile.length() > 2 * mLiveBytes) {
+				compact();
+			}
+		}
+		catch (IOException e) {
+			Log.e("DiskCache", "Unable to open journal, starting over: " + e.toString());
+			reset();
+		}
+	}
+
+	public synchronized Record get(String key) {
+		prepare();
+		IndexEntry entry = mIndex.get(key);
+		if (entry == null || mJournal == null) {
+			return null;
+		}
+
+		try {
+			Record record = new Record();
+			record.mPayload = new byte[entry.mPayloadLength];
+			mJournal.seek(entry.mPayloadOffset);
+			mJournal.readFully(record.mPayload);
+			record.mFetchTime = entry.mFetchTime;
+			record.mETag = entry.mETag;
+			record.mLastModified = entry.mLastModified;
+			return record;
+		}
+		catch (IOException e) {
+			Log.e("DiskCache", "Unable to read '" + key + "': " + e.toString());
+			remove(key);
+			return null;
+		}
+	}
+
+	public synchronized void put(String key, long fetchTime, String etag, String lastModified, byte[] payload) {
+		prepare();
+		if (mJournal == null) {
+			return;
+		}
+
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 128);
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(PUT);
+			out.writeUTF(key);
+			out.writeLong(fetchTime);
+			out.writeUTF(etag != null ? etag : "");
+			out.writeUTF(lastModified != null ? lastModified : "");
+			out.writeInt(payload.length);
+			int header = out.size();
+			out.write(payload);
+			out.flush();
+
+			long offset = mJournal.length();
+			mJournal.seek(offset);
+			mJournal.write(bytes.toByteArray());
+
+			IndexEntry entry = new IndexEntry();
+			entry.mPayloadOffset = offset + header;
+			entry.mPayloadLength = payload.length;
+			entry.mRecordLength = bytes.size();
+			entry.mFetchTime = fetchTime;
+			entry.mETag = etag;
+			entry.mLastModified = lastModified;
+			index(key, entry);
+		}
+		catch (IOException e) {
+			Log.e("DiskCache", "Unable to write '" + key + "': " + e.toString());
+		}
+	}
+
+	// Records that 'key' was found to still be current at 'fetchTime', without rewriting its payload.  'etag' and
+	// 'lastModified' are the validators to ask about it with from now on.
+	public synchronized void touch(String key, long fetchTime, String etag, String lastModified) {
+		prepare();
+		IndexEntry entry = mIndex.get(key);
+		if (entry == null || mJournal == null) {
+			return;
+		}
+
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(TOUCH);
+			out.writeUTF(key);
+			out.writeLong(fetchTime);
+			out.writeUTF(etag != null ? etag : "");
+			out.writeUTF(lastModified != null ? lastModified : "");
+			out.flush();
+
+			mJournal.seek(mJournal.length());
+			mJournal.write(bytes.toByteArray());
+			entry.mFetchTime = fetchTime;
+			entry.mETag = etag;
+			entry.mLastModified = lastModified;
+		}
+		catch (IOException e) {
+			Log.e("DiskCache", "Unable to touch '" + key + "': " + e.toString());
+		}
+	}
+
+	// Forgets 'key', for good: the next open() sees the tombstone we leave, and the next compaction drops the bytes
+	public synchronized void remove(String key) {
+		prepare();
+		IndexEntry entry = mIndex.remove(key);
+		if (entry == null || mJournal == null) {
+			return;
+		}
+		mLiveBytes -= entry.mRecordLength;
+
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(REMOVE);
+			out.writeUTF(key);
+			out.flush();
+
+			mJournal.seek(mJournal.length());
+			mJournal.write(bytes.toByteArray());
+		}
+		catch (IOException e) {
+			Log.e("DiskCache", "Unable to remove '" + key + "': " + e.toString());
+		}
+	}
+
+	public synchronized int size() {
+		prepare();
+		return mIndex.size();
+	}
+
+	// Lets go of the journal.  Using us again opens it again.
+	public synchronized void close() {
+		closeJournal();
+		mIndex.clear();
+		mLiveBytes = 0;
+		mOpened = false;
+	}
+
+	private void closeJournal() {
+		if (mJournal != null) {
+			try {
+				mJournal.close();
+			}
+			catch (IOException e) {
+			}
+			mJournal = null;
+		}
+	}
+
+	private void index(String key, IndexEntry entry) {
+		IndexEntry old = mIndex.put(key, entry);
+		if (old != null) {
+			mLiveBytes -= old.mRecordLength;
+		}
+		mLiveBytes += entry.mRecordLength;
+	}
+
+	// Rebuilds mIndex from the journal.  A record cut short by a crash ends the scan, and is truncated away.
+	private void open() throws IOException {
+		mIndex.clear();
+		mLiveBytes = 0;
+
+		long good = 0;
+		long fileLength = mFile.length();
+		if (mFile.exists()) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(mFile)));
+			try {
+				if (in.readInt() != sMagic || in.readInt() != sVersion) {
+					throw new IOException("Unknown journal format");
+				}
+				good = 8;
+
+				while (true) {
+					IndexEntry entry = new IndexEntry();
+					String key;
+					long start = good;
+					try {
+						byte type = in.readByte();
+						key = in.readUTF();
+						if (type == REMOVE) {
+							IndexEntry removed = mIndex.remove(key);
+							if (removed != null) {
+								mLiveBytes -= removed.mRecordLength;
+							}
+							good += 1 + utfLength(key);
+							continue;
+						}
+						long fetchTime = in.readLong();
+						if (type != PUT && type != TOUCH) {
+							throw new IOException("Bad record type " + type);
+						}
+						String etag = in.readUTF();
+						String lastModified = in.readUTF();
+						if (type == TOUCH) {
+							IndexEntry existing = mIndex.get(key);
+							if (existing != null) {
+								existing.mFetchTime = fetchTime;
+								existing.mETag = etag.length() > 0 ? etag : null;
+								existing.mLastModified = lastModified.length() > 0 ? lastModified : null;
+							}
+							good += 1 + utfLength(key) + 8 + utfLength(etag) + utfLength(lastModified);
+							continue;
+						}
+
+						int length = in.readInt();
+						long header = 1 + utfLength(key) + 8 + utfLength(etag) + utfLength(lastModified) + 4;
+						if (length < 0 || start + header + length > fileLength) {
+							throw new EOFException();
+						}
+						skipFully(in, length);
+
+						entry.mPayloadOffset = start + header;
+						entry.mPayloadLength = length;
+						entry.mRecordLength = (int)(header + length);
+						entry.mFetchTime = fetchTime;
+						entry.mETag = etag.length() > 0 ? etag : null;
+						entry.mLastModified = lastModified.length() > 0 ? lastModified : null;
+					}
+					catch (EOFException e) {
+						break;
+					}
+
+					good += entry.mRecordLength;
+					index(key, entry);
+				}
+			}
+			finally {
+				in.close();
+			}
+		}
+
+		mJournal = new RandomAccessFile(mFile, "rw");
+		if (good == 0) {
+			mJournal.setLength(0);
+			mJournal.writeInt(sMagic);
+			mJournal.writeInt(sVersion);
+		}
+		else if (mJournal.length() > good) {
+			Log.w("DiskCache", "Truncating " + (mJournal.length() - good) + " bytes of partial record");
+			mJournal.setLength(good);
+		}
+	}
+
+	// Rewrites the journal with only the latest record for each key
+	private void compact() throws IOException {
+		Log.v("DiskCache", "Compacting journal, " + mFile.length() + " bytes, " + mLiveBytes + " live");
+		HashMap<String, Record> live = new HashMap<String, Record>();
+		for (String key : mIndex.keySet()) {
+			Record record = get(key);
+			if (record != null) {
+				live.put(key, record);
+			}
+		}
+
+		closeJournal();
+		File old = new File(mFile.getPath() + ".old");
+		if (!mFile.renameTo(old)) {
+			throw new IOException("Unable to move journal aside");
+		}
+
+		mIndex.clear();
+		mLiveBytes = 0;
+		open();
+		for (Map.Entry<String, Record> e : live.entrySet()) {
+			Record record = e.getValue();
+			put(e.getKey(), record.mFetchTime, record.mETag, record.mLastModified, record.mPayload);
+		}
+		old.delete();
+	}
+
+	private void reset() {
+		closeJournal();
+		mFile.delete();
+		try {
+			open();
+		}
+		catch (IOException e) {
+			Log.e("DiskCache", "Unable to create journal, disk cache disabled: " + e.toString());
+			mJournal = null;
+		}
+	}
+
+	private static void skipFully(DataInputStream in, long count) throws IOException {
+		while (count > 0) {
+			long skipped = in.skip(count);
+			if (skipped <= 0) {
+				if (in.read() == -1) {
+					throw new EOFException();
+				}
+				skipped = 1;
+			}
+			count -= skipped;
+		}
+	}
+
+	// Bytes DataOutputStream.writeUTF uses for 's'
+	private static int utfLength(String s) {
+		int length = 2;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c >= 0x0001 && c <= 0x007F) {
+				length += 1;
+			}
+			else if (c > 0x07FF) {
+				length += 3;
+			}
+			else {
+				length += 2;
+			}
+		}
+		return length;
+	}
+
+	private final File mFile;
+	private RandomAccessFile mJournal = null;		// null until prepare(), and after it if the journal was unusable
+	private boolean mOpened = false;
+	private final HashMap<String, IndexEntry> mIndex = new HashMap<String, IndexEntry>();
+	private long mLiveBytes = 0;
+}
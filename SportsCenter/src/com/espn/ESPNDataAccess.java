@@ -1,191 +1,132 @@
 package com.espn;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.InterruptedIOException;
+import java.io.PushbackInputStream;
+import java.net.SocketTimeoutException;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import com.espn.ScoreCenter.R;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.params.HttpConnectionParams;
 
 import android.util.Log;
 
 public class ESPNDataAccess implements DataAccess {
+	// Builds the result of a request from its response body, as the body streams in
+	private interface ResponseParser<T> {
+		T parse(JsonStreamReader reader) throws IOException;
+	}
+	
+	// ESPN allows us one call a second; the proxy serves from its own cache, so only its misses count against that
+	private final static RateLimiter sApiLimiter = new RateLimiter("espn", 1.0, 1);
+	private final static RateLimiter sProxyLimiter = new RateLimiter("proxy", 10.0, 5);
+	private final static int sApiConnections = 2;	// Pooled keep-alive connections to the ESPN api host
+	private final static int sProxyConnections = 4;	// ... and to the caching proxy, which can serve several at once
+	private final static long sDefaultTimeout = 15000;	// how long a request gets when neither we nor the caller say
+	private final static long sDefaultHedgeDelay = 1000;	// until we've seen enough responses to know what slow is
+	private final static long sMinHedgeDelay = 50;
+	private final static int sHedgeSamples = 20;
 	
-	private static long sLastAPICall = 0;	// This represents the last time we used the ESPN api (/NOT/ the proxy API)
-	private final static int sAPIWWaitTime = 1000;	// The time we wait after an API call to the ESPN api
+	public final static String ESPN_API_URL = "http://api.espn.com/v1/sports";
 	
-	private String mApiUrlBase = "http://api.espn.com/v1/sports";
-	private String mApiKey = "";
-	private String mURLPrefix = ""; //"http://rolnicki.net/restcache.php?url=";
+	private String mApiUrlBase;
+	private String mApiKey;
+	private String mURLPrefix; //"http://rolnicki.net/restcache.php?url=";
 	private HashMap<Grouping, String> mNewsUrls = new HashMap<Grouping, String>(); 
+	private HttpTransport mTransport;
+	private RateLimiter mApiLimiter;
+	private RateLimiter mProxyLimiter;
+	private LoadMetrics mMetrics = LoadMetrics.getInstance();
+	private long[] mTimeouts = new long[DataType.values().length];
+	private LatencyHistogram[] mHedgeLatencies = new LatencyHistogram[DataType.values().length];	// see getHedgeDelay()
+	private volatile boolean mHedging = true;
 	
-	public LinkedList<Player> LoadPlayersFromTeam(TeamGrouping team) {
-		// TODO: update this url if we get access to athletes by team api
-		String url = mApiUrlBase + "/" + team.getSport().mAbbreviation.toLowerCase() + "/" + team.getLeague().mAbbreviation.toLowerCase() + "/athletes?apikey=" + mApiKey;
-		String result = getData(url);
-		
-		if (result == null) {
+	ESPNDataAccess() {
+		this(ESPN_API_URL, "", "", sApiLimiter, sProxyLimiter);
+	}
+	
+	// For pointing us somewhere other than the real api, like the stand-in server the perf tools run.  The limiters 
+	// let such a setup use its own budget instead of ESPN's; 'urlPrefix' is "" to talk to 'apiUrlBase' directly.
+	public ESPNDataAccess(String apiUrlBase, String urlPrefix, String apiKey, RateLimiter apiLimiter, RateLimiter proxyLimiter) {
+		mApiUrlBase = apiUrlBase;
+		mURLPrefix = urlPrefix;
+		mApiKey = apiKey;
+		mApiLimiter = apiLimiter;
+		mProxyLimiter = proxyLimiter;
+		mTransport = HttpTransport.getInstance();
+		for (DataType type : DataType.values()) {
+			mTimeouts[type.ordinal()] = sDefaultTimeout;
+			mHedgeLatencies[type.ordinal()] = new LatencyHistogram();
+		}
+		if (mURLPrefix.length() > 0) {
+			mTransport.setMaxConnectionsForHost(mURLPrefix, sProxyConnections);
+		}
+		else {
+			mTransport.setMaxConnectionsForHost(mApiUrlBase, sApiConnections);
+		}
+	}
+	
+	// There is no athletes by team api, so rosters come out of the whole league's list; see AthleteIndex
+	public AthleteIndex LoadAthletesFromLeague(Grouping group, RequestContext ctx) {
+		Grouping league = group.getLeague();
+		if (league == null) {
+			Log.e("ESPNDataAccess", "No league for group: " + group.mName);
 			return null;
 		}
 		
-		try {
-			Log.v("ESPNDataAccess", "JSON message: " + result);
-			JSONObject json = new JSONObject(result);
-			JSONArray jsonLeagues = json.getJSONArray("sports").getJSONObject(0).getJSONArray("leagues").getJSONObject(0).getJSONArray("athletes");
-			LinkedList<Player> ret = new LinkedList<Player>();
-			
-			for (int i = 0; i < jsonLeagues.length(); i++) {
-				JSONObject obj = jsonLeagues.getJSONObject(i);
-				String displayName = "";
-				String shortName = "";
-				
-				if (obj.has("displayName")) {
-					displayName = obj.getString("displayName");
-				}
-				
-				if (obj.has("shortName")) {
-					shortName = obj.getString("shortName");
-				}
-				else {
-					shortName = displayName;
-				}
-				
-				Player newPlayer = new Player(displayName, shortName, team);
-				newPlayer.mHeadshot = R.drawable.fsm;
-				newPlayer.mPosition = new String[]{"Shortstop", "Pitcher", "Quarterback", "Fullback", "Center", "Goalie"}[(int) Math.floor(Math.random() * 6)];
-				
-				ret.add(newPlayer);
-				// TODO: add URLs to APIs hash
+		String url = mApiUrlBase + league.getPath().getUrlPath() + "/athletes?apikey=" + mApiKey;
+		return getData(url, DataType.PLAYERS, ctx, new ResponseParser<AthleteIndex>() {
+			@Override
+			public AthleteIndex parse(JsonStreamReader reader) throws IOException {
+				return ESPNResponseParser.parseAthletes(reader);
 			}
-			return ret;
-		}
-		catch(Exception e) {
-			Log.e("ESPNDataAccess", "Error: " + e.toString());
-			e.printStackTrace();
-		}
-		return null;		
+		});
 	}
 	
-	public LinkedList<TeamGrouping> LoadTeamsFromLeague(Grouping group) {		
+	public LinkedList<TeamGrouping> LoadTeamsFromLeague(final Grouping group, RequestContext ctx) {		
 		// TODO: verify group does not already contain teams, OR handle the case
 		if (group.mCategoryType != Grouping.GroupingType.LEAGUE) {
 			Log.e("ESPNDataAccess", "Invalid group type: " + group.mCategoryType.toString());
 			return null;
 		}
 		
-		String url = mApiUrlBase + "/" + group.getSport().mAbbreviation.toLowerCase() + "/" + group.mAbbreviation.toLowerCase() + "/teams?apikey=" + mApiKey;
-		String result = getData(url);
-		
-		if (result == null) {
-			return null;
-		}
-		
-		try {
-			Log.v("ESPNDataAccess", "JSON message: " + result);
-			JSONObject json = new JSONObject(result);
-			JSONArray jsonLeagues = json.getJSONArray("sports").getJSONObject(0).getJSONArray("leagues").getJSONObject(0).getJSONArray("teams");
-			LinkedList<TeamGrouping> ret = new LinkedList<TeamGrouping>();
-			
-			for (int i = 0; i < jsonLeagues.length(); i++) {
-				JSONObject obj = jsonLeagues.getJSONObject(i);
-				String name = "";
-				String abbrev = "";
-				
-				if (obj.has("name")) {
-					name = obj.getString("name");
-				}
-				
-				if (obj.has("abbreviation")) {
-					abbrev = obj.getString("abbreviation");
-				}
-				else {
-					abbrev = name;
-				}
-				
-				TeamGrouping newGroup = new TeamGrouping(name, abbrev, group);				
-				newGroup.mImageID = R.drawable.fsm;
-				if (obj.has("location")) {
-					newGroup.mLocation = obj.getString("location");
-				}
-				
-				ret.add(newGroup);
-				// TODO: add URLs to APIs hash
+		String url = mApiUrlBase + group.getPath().getUrlPath() + "/teams?apikey=" + mApiKey;
+		return getData(url, DataType.TEAMS, ctx, new ResponseParser<LinkedList<TeamGrouping>>() {
+			@Override
+			public LinkedList<TeamGrouping> parse(JsonStreamReader reader) throws IOException {
+				return ESPNResponseParser.parseTeams(reader, group);
 			}
-			return ret;
-		}
-		catch(Exception e) {
-			Log.e("ESPNDataAccess", "Error: " + e.toString());
-			e.printStackTrace();
-		}
-		return null;
+		});
 	}
 	
-	public LinkedList<Grouping> LoadLeaguesFromSport(Grouping group) {		
+	public LinkedList<Grouping> LoadLeaguesFromSport(final Grouping group, RequestContext ctx) {		
 		// TODO: verify group does not already contain leagues, OR handle the case
 		if (group.mCategoryType != Grouping.GroupingType.SPORT) {
 			Log.e("ESPNDataAccess", "Invalid group type: " + group.mCategoryType.toString());
 			return null;
 		}
 		
-		String url = mApiUrlBase + "/" + group.mAbbreviation.toLowerCase() + "?apikey=" + mApiKey;
-		String result = getData(url);
-		
-		if (result == null) {
-			return null;
-		}
-		
-		try {
-			Log.v("ESPNDataAccess", "JSON message: " + result);
-			JSONObject json = new JSONObject(result);
-			JSONArray jsonLeagues = json.getJSONArray("sports").getJSONObject(0).getJSONArray("leagues");
-			LinkedList<Grouping> ret = new LinkedList<Grouping>();
-			
-			for (int i = 0; i < jsonLeagues.length(); i++) {
-				JSONObject obj = jsonLeagues.getJSONObject(i);
-				String name = "";
-				String abbrev = "";
-				
-				if (obj.has("name")) {
-					name = obj.getString("name");
-				}
-				
-				if (obj.has("abbreviation")) {
-					abbrev = obj.getString("abbreviation");
-				}
-				else {
-					abbrev = name;
-				}
-				
-				Grouping newGroup = new Grouping(Grouping.GroupingType.LEAGUE, name, abbrev, group);				
-				
-				ret.add(newGroup);
-				// TODO: add URLs to APIs hash
+		String url = mApiUrlBase + group.getPath().getUrlPath() + "?apikey=" + mApiKey;
+		return getData(url, DataType.LEAGUES, ctx, new ResponseParser<LinkedList<Grouping>>() {
+			@Override
+			public LinkedList<Grouping> parse(JsonStreamReader reader) throws IOException {
+				return ESPNResponseParser.parseLeagues(reader, group);
 			}
-			return ret;
-		}
-		catch(Exception e) {
-			Log.e("ESPNDataAccess", "Error: " + e.toString());
-			e.printStackTrace();
-		}
-		return null;
+		});
 	}
 	
-	public LinkedList<NewsItem> LoadNewsFromGroup(Grouping group) {
-		Grouping sport = group.getSport();
-		Grouping league = group.getLeague();
-		
+	public LinkedList<NewsItem> LoadNewsFromGroup(Grouping group, final RequestContext ctx) {
 		// TODO: rearchitect. maybe have a static map in ESPNDataAccess to map 'Group' (the object)
 		// to 'news url'.  Should be easy enough...		
 		String strURL;
@@ -193,115 +134,344 @@ public class ESPNDataAccess implements DataAccess {
 			strURL = mNewsUrls.get(group);
 		}
 		else {
-			StringBuilder sb = new StringBuilder(mApiUrlBase);
-			if (sport != null) {
-				sb.append("/" + sport.mAbbreviation.toLowerCase());
-			}
-			
-			if (league != null) {
-				sb.append("/" + league.mAbbreviation.toLowerCase());	// TODO: epsn api wants /sports/football/college-football, not NCAA
-			}
-			
 			// Can't get news for sub-groups (AL, NL, etc), so just get it up to league level
-			
-			sb.append("/news?apikey=" + mApiKey);
-			strURL = sb.toString();
+			// TODO: epsn api wants /sports/football/college-football, not NCAA
+			strURL = mApiUrlBase + group.getPath().getLeaguePath().getUrlPath() + "/news?apikey=" + mApiKey;
 		}
 		
-		try {
-			String result = getData(strURL);
-			Log.v("ESPNDataAccess", "JSON message: " + result);
-			JSONObject json = new JSONObject(result);
-			JSONArray jsonHeadlines = json.getJSONArray("headlines");
-			LinkedList<NewsItem> ret = new LinkedList<NewsItem>();
-			SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ"); 
-			for (int i = 0; i < jsonHeadlines.length(); i++) {
-				JSONObject obj = jsonHeadlines.getJSONObject(i);
-				NewsItem newsItem = new NewsItem();
-				newsItem.mHeadline = obj.getString("headline");
-				newsItem.mID = obj.getString("id");				
-				newsItem.mPublishDate = new Date(2012, 12, 25);// TODO:df.parse(obj.getString("published"));
-				ret.add(newsItem);
+		return getData(strURL, DataType.NEWS, ctx, new ResponseParser<LinkedList<NewsItem>>() {
+			@Override
+			public LinkedList<NewsItem> parse(JsonStreamReader reader) throws IOException {
+				return ESPNResponseParser.parseNews(reader, ctx != null ? ctx.mKnownIds : null);
 			}
-			return ret;
-		}
-		catch(Exception e) {
-			Log.e("ESPNDataAccess", "Error: " + e.toString());
-			e.printStackTrace();
-		}
-		return null;
+		});
 	}
-	
-	private String convertStreamToString(InputStream is) {
-        /*
-         * To convert the InputStream to String we use the BufferedReader.readLine()
-         * method. We iterate until the BufferedReader return null which means
-         * there's no more data to read. Each line will appended to a StringBuilder
-         * and returned as String.
-         */
-        BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-        StringBuilder sb = new StringBuilder();
  
-        String line = null;
+    // How long a request for 'type' may take in all, queueing included, unless its RequestContext has a deadline
+    public synchronized void setTimeout(DataType type, long timeoutMillis) {
+    	mTimeouts[type.ordinal()] = timeoutMillis;
+    }
+    
+    public synchronized long getTimeout(DataType type) {
+    	return mTimeouts[type.ordinal()];
+    }
+    
+    // Whether a request to the proxy that runs past the 95th percentile of its type's response times gets raced
+    // against a second copy.  Requests straight to the api are never hedged; each one costs quota.
+    public void setHedging(boolean hedging) {
+    	mHedging = hedging;
+    }
+    
+    public static RateLimiter getApiLimiter() {
+    	return sApiLimiter;
+    }
+    
+    public static RateLimiter getProxyLimiter() {
+    	return sProxyLimiter;
+    }
+    
+    private static InputStream decode(InputStream in, Header contentEncoding) throws IOException {
+    	if (contentEncoding != null) {
+    		String encoding = contentEncoding.getValue();
+    		if (encoding.equalsIgnoreCase("gzip")) {
+    			return new GZIPInputStream(in);
+    		}
+    		else if (encoding.equalsIgnoreCase("deflate")) {
+    			return new InflaterInputStream(in);
+    		}
+    	}
+    	
+    	return in;
+    }
+    
+    private static HttpGet newRequest(String url, RequestContext ctx) {
+        HttpGet httpget = new HttpGet(url);
+        httpget.addHeader("Accept-Encoding", "gzip, deflate");
+        if (ctx != null) {
+        	if (ctx.mETag != null) {
+        		httpget.addHeader("If-None-Match", ctx.mETag);
+        	}
+        	if (ctx.mLastModified != null) {
+        		httpget.addHeader("If-Modified-Since", ctx.mLastModified);
+        	}
+        }
+        return httpget;
+    }
+    
+    // Takes a permit from 'limiter', as long as it comes in time to send before 'deadline'; throws, holding nothing, if
+    // it wouldn't or if 'cancel' is cancelled while we wait
+    private static long acquire(RateLimiter limiter, CancelToken cancel, long deadline) throws IOException, InterruptedException {
+    	long queued = limiter.acquire(cancel, deadline - System.currentTimeMillis());
+    	if (queued < 0) {
+    		throw new SocketTimeoutException("Deadline would pass waiting on the " + limiter.getName() + " rate limit");
+    	}
+    	return queued;
+    }
+    
+    // Waits out any debt 'limiter' is in, as long as that's done in time to send before 'deadline'; throws if it
+    // wouldn't be, or if 'cancel' is cancelled while we wait
+    private static long awaitAvailable(RateLimiter limiter, CancelToken cancel, long deadline) throws IOException, InterruptedException {
+    	long queued = limiter.awaitAvailable(cancel, deadline - System.currentTimeMillis());
+    	if (queued < 0) {
+    		throw new SocketTimeoutException("Deadline would pass waiting on the " + limiter.getName() + " rate limit");
+    	}
+    	return queued;
+    }
+    
+    // Sets up 'request' to fail once 'deadline' passes: the socket timeouts cover a stalled connect or read, and the
+    // returned timer aborts it outright, for a body that trickles in just fast enough to dodge them
+    private ScheduledFuture<?> bound(HttpUriRequest request, long deadline) throws IOException {
+    	long remaining = deadline - System.currentTimeMillis();
+    	if (remaining <= 0) {
+    		throw new SocketTimeoutException("Deadline passed before the request was sent");
+    	}
+    	
+    	HttpConnectionParams.setConnectionTimeout(request.getParams(), (int)Math.min(remaining, Integer.MAX_VALUE));
+    	HttpConnectionParams.setSoTimeout(request.getParams(), (int)Math.min(remaining, Integer.MAX_VALUE));
+    	return mTransport.abortAfter(request, remaining);
+    }
+    
+    // How long a proxied request for 'type' goes unanswered before we hedge it: the 95th percentile of how long the
+    // headers of its full responses have been taking.  That's only the ones we sent through the proxy, and no 304s,
+    // which come back faster than any body would; the metrics' CONNECT histogram mixes all of those together.
+    private long getHedgeDelay(DataType type) {
+    	LatencyHistogram latency = mHedgeLatencies[type.ordinal()];
+    	if (latency.getCount() < sHedgeSamples) {
+    		return sDefaultHedgeDelay;
+    	}
+    	return Math.max(sMinHedgeDelay, (long)latency.getInterpolatedPercentileMillis(95));
+    }
+    
+    // Requests 'url' and parses the body straight off the wire; the response is never held as a String.  
+    // Returns null if the request or the parse fails, runs past its deadline or is cancelled, if ctx's validators say
+    // our copy is current (a 304), or if it's optional and no permit was free (see RequestContext).
+    private <T> T getData(String url, final DataType type, final RequestContext ctx, ResponseParser<T> parser) { 
+    	final String fullUrl = mURLPrefix + url; 
+        HttpGet httpget = newRequest(fullUrl, ctx);
+        Log.v("getData", "httpget url: " + fullUrl);
+        
+        final long deadline = ctx != null && ctx.mDeadline > 0 ? ctx.mDeadline : System.currentTimeMillis() + getTimeout(type);
+        final CancelToken cancel = ctx != null ? ctx.mCancel : null;
+        final HttpUriRequest[] hedge = new HttpUriRequest[1];
+        final ScheduledFuture<?>[] timers = new ScheduledFuture<?>[2];
+        final boolean proxied = mURLPrefix.length() > 0;
+        final boolean[] hedgeWon = new boolean[1];
+        final boolean optional = ctx != null && ctx.mOptional;
+        
+        // Background work only goes if there's a permit free right now.  A foreground request waiting on a limiter
+        // has already reserved the next one, so an optional request can never get in ahead of it, or hold it up.
+        if (optional && !(proxied ? mApiLimiter.isAvailable() && mProxyLimiter.tryAcquire() : mApiLimiter.tryAcquire())) {
+        	Log.v("ESPNDataAccess", "No permit free, putting off " + fullUrl);
+        	ctx.mThrottled = true;
+        	mMetrics.increment(type, LoadMetrics.Counter.THROTTLED);
+        	return null;
+        }
+        boolean proxyPermit = optional && proxied;
+        boolean apiPermit = optional && !proxied;
+        boolean onWire = false;
+        long start = System.nanoTime();
         try {
-            while ((line = reader.readLine()) != null) {
-                sb.append(line + "\n");
+        	// Only the wait for a permit is serialized; the request itself runs concurrently with any others.  The
+        	// proxy only goes to ESPN on a miss, so a proxied request doesn't pay for an ESPN permit up front; it waits
+        	// out any debt ESPN's bucket is in, and is charged if the response says it missed.
+        	long queued = 0;
+        	if (proxied && !optional) {
+        		queued = acquire(mProxyLimiter, cancel, deadline);
+        		proxyPermit = true;
+        		queued += awaitAvailable(mApiLimiter, cancel, deadline);
+        	}
+        	else if (!optional) {
+        		queued = acquire(mApiLimiter, cancel, deadline);
+        		apiPermit = true;
+        	}
+        	Log.v("ESPNDataAccess", "Queued " + queued + "ms for rate limit");
+        	long sent = System.nanoTime();
+        	mMetrics.record(type, LoadMetrics.Phase.QUEUE, sent - start);
+        	
+        	if (cancel != null && !cancel.attach(httpget)) {
+        		throw new InterruptedIOException("Cancelled before the request was sent");
+        	}
+        	timers[0] = bound(httpget, deadline);
+        	onWire = true;
+        	HttpResponse response;
+        	if (proxied && mHedging) {
+        		response = mTransport.execute(httpget, getHedgeDelay(type), new HttpTransport.Hedge() {
+        			@Override
+        			public HttpUriRequest newRequest() {
+        				// A hedge has to be free: a proxy permit that's there now, and an ESPN one paid up front in case
+        				// the proxy misses on it.  Otherwise we stick with the request we have.
+        				if (!mProxyLimiter.tryAcquire()) {
+        					return null;
+        				}
+        				if (!mApiLimiter.tryAcquire()) {
+        					mProxyLimiter.refund();
+        					return null;
+        				}
+        				
+        				HttpUriRequest request = ESPNDataAccess.newRequest(fullUrl, ctx);
+        				try {
+        					if (cancel != null && !cancel.attach(request)) {
+        						throw new InterruptedIOException("Cancelled before the hedge was sent");
+        					}
+        					timers[1] = bound(request, deadline);
+        				}
+        				catch (IOException e) {
+        					// Never sent, so neither permit was used
+        					if (cancel != null) {
+        						cancel.detach(request);
+        					}
+        					mProxyLimiter.refund();
+        					mApiLimiter.refund();
+        					return null;
+        				}
+        				hedge[0] = request;
+        				mMetrics.increment(type, LoadMetrics.Counter.HEDGES);
+        				return hedge[0];
+        			}
+        			
+        			@Override
+        			public void won() {
+        				hedgeWon[0] = true;
+        				mMetrics.increment(type, LoadMetrics.Counter.HEDGE_WINS);
+        			}
+        			
+        			@Override
+        			public void lost() {
+        				// We never read its body, so as far as we know ESPN never saw it either
+        				mApiLimiter.refund();
+        			}
+        		});
+        	}
+        	else {
+        		response = mTransport.execute(httpget);
+        	}
+        	long headers = System.nanoTime();
+        	mMetrics.record(type, LoadMetrics.Phase.CONNECT, headers - sent);
+
+            Log.i("ESPNDataAccess",response.getStatusLine().toString());
+            HttpEntity entity = response.getEntity();
+            
+            int status = response.getStatusLine().getStatusCode();
+            if (proxied && status == HttpStatus.SC_OK) {
+            	mHedgeLatencies[type.ordinal()].record(headers - sent);
             }
-        } 
-        catch (IOException e) {
-            e.printStackTrace();
-        } 
-        finally {
-            try {
-                is.close();
-            } 
-            catch (IOException e) {
-                e.printStackTrace();
+            Header etag = response.getFirstHeader("ETag");
+            Header lastModified = response.getFirstHeader("Last-Modified");
+            if (ctx != null) {
+            	if (status == HttpStatus.SC_NOT_MODIFIED) {
+            		// Nothing to parse; the caller just extends the life of what it has.  The server may have sent
+            		// new validators with it, though; any it left out still stand.
+            		if (entity != null) {
+            			entity.consumeContent();
+            		}
+            		if (etag != null) {
+            			ctx.mETag = etag.getValue();
+            		}
+            		if (lastModified != null) {
+            			ctx.mLastModified = lastModified.getValue();
+            		}
+            		ctx.mNotModified = true;
+            		mMetrics.increment(type, LoadMetrics.Counter.NOT_MODIFIED);
+            		mMetrics.record(type, LoadMetrics.Phase.FETCH, System.nanoTime() - start);
+            		return null;
+            	}
+            	
+            	// Until we know there's a body they describe; see below
+            	ctx.mETag = null;
+            	ctx.mLastModified = null;
             }
-        }
-        return sb.toString();
-    }
  
-    public String getData(String url) { 
-    	url = mURLPrefix + url; 
-        HttpClient httpclient = new DefaultHttpClient();
- 
-        // Prepare a request object
-        HttpGet httpget = new HttpGet(url);
-        Log.v("getData", "httpget url: " + url);
-
-        try {
-	        synchronized(this) {
-	        	long curTime = System.currentTimeMillis();
-	        	if (sLastAPICall + sAPIWWaitTime > curTime) {
-	        		Thread.sleep(sLastAPICall + sAPIWWaitTime - curTime);
-	        	}
-	        	HttpResponse response = httpclient.execute(httpget);
-	
-	            Log.i("ESPNDataAccess",response.getStatusLine().toString());
-	            HttpEntity entity = response.getEntity();
-	 
-	            if (entity != null) {
-	            	// TODO: return null if http code > 300, make sure proxy is passing along http code
-	                InputStream instream = entity.getContent();
-	                String result= convertStreamToString(instream);
-	                if (result.charAt(0) == '1') {
-	                	// Hack to signify we used the actual ESPN API to get this value.
-	                	sLastAPICall = System.currentTimeMillis();
-	                	result = result.substring(1); // Not so efficient, but simple
+            if (entity != null) {
+            	// TODO: return null if http code > 300, make sure proxy is passing along http code
+                // Undo any content encoding on the fly; the parser reads decompressed bytes as they arrive
+                CountingInputStream wire = new CountingInputStream(entity.getContent());
+                CountingInputStream decoded = new CountingInputStream(decode(wire, entity.getContentEncoding()));
+                PushbackInputStream instream = new PushbackInputStream(decoded, 1);
+                try {
+	                int first = instream.read();
+	                if (first == '1') {
+	                	// Hack to signify we used the actual ESPN API to get this value.  A hedge paid for that already.
+	                	if (proxied && !hedgeWon[0]) {
+	                		mApiLimiter.charge();
+	                	}
 	                	Log.v("ESPNDataAccess", "ESPN API used");
 	                }
-
-	                instream.close();
-	                return result;
-	            }
-	        }	        
+	                else {
+	                	if (hedgeWon[0]) {
+	                		// The proxy had it cached, so ESPN never saw the request the hedge paid for
+	                		mApiLimiter.refund();
+	                	}
+	                	if (first != -1) {
+	                		instream.unread(first);
+	                	}
+	                }
+	
+	                T ret = parser.parse(new JsonStreamReader(new InputStreamReader(instream, "UTF-8")));
+	                if (ctx != null && status == HttpStatus.SC_OK && ret != null) {
+	                	// Validators are only worth sending back for a body we have; never for an error page's
+	                	ctx.mETag = etag != null ? etag.getValue() : null;
+	                	ctx.mLastModified = lastModified != null ? lastModified.getValue() : null;
+	                }
+	                return ret;
+                }
+                finally {
+                	// Closing drains whatever the parser skipped, and hands the connection back to the pool
+                	instream.close();
+                	long done = System.nanoTime();
+                	mMetrics.record(type, LoadMetrics.Phase.TRANSFER, wire.getReadNanos());
+                	mMetrics.record(type, LoadMetrics.Phase.PARSE, Math.max(0, done - headers - wire.getReadNanos()));
+                	mMetrics.record(type, LoadMetrics.Phase.FETCH, done - start);
+                	mMetrics.increment(type, LoadMetrics.Counter.RESPONSES);
+                	mMetrics.add(type, LoadMetrics.Counter.WIRE_BYTES, wire.getCount());
+                	if (ctx != null) {
+                		ctx.mWireBytes = wire.getCount();
+                	}
+                	mMetrics.add(type, LoadMetrics.Counter.DECODED_BYTES, decoded.getCount());
+                }
+            }
         } 
         catch (Exception e) {
+        	if (!onWire) {
+        		// We gave up before the request went out, so give back what it would have used
+        		if (proxyPermit) {
+        			mProxyLimiter.refund();
+        		}
+        		if (apiPermit) {
+        			mApiLimiter.refund();
+        		}
+        	}
+        	// Don't leave a half read connection checked out of the pool
+        	httpget.abort();
+        	if (hedge[0] != null) {
+        		hedge[0].abort();
+        	}
+        	if (cancel != null && cancel.isCancelled()) {
+        		// Not a failure; whoever asked has moved on
+        		Log.v("ESPNDataAccess", "Cancelled " + fullUrl);
+        		mMetrics.increment(type, LoadMetrics.Counter.CANCELLED);
+        		return null;
+        	}
+        	if (System.currentTimeMillis() >= deadline || e instanceof SocketTimeoutException) {
+        		mMetrics.increment(type, LoadMetrics.Counter.TIMEOUTS);
+        	}
         	Log.e("ESPNDataAcces", "Error: " + e.toString());
         	e.printStackTrace();
         }
+        finally {
+        	for (ScheduledFuture<?> timer : timers) {
+        		if (timer != null) {
+        			timer.cancel(false);
+        		}
+        	}
+        	if (cancel != null) {
+        		cancel.detach(httpget);
+        		if (hedge[0] != null) {
+        			cancel.detach(hedge[0]);
+        		}
+        	}
+        }
         
+        mMetrics.increment(type, LoadMetrics.Counter.ERRORS);
         return null;
     }
-}
+}
\ No newline at end of file
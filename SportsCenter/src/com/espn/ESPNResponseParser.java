@@ -0,0 +1,284 @@
+package com.espn;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TimeZone;
+
+import android.util.Log;
+
+import com.espn.ScoreCenter.R;
+
+// ESPNResponseParser turns ESPN api responses into our model objects as they stream in.  Every response we use has
+// the interesting array a few levels down (sports[0].leagues[0].athletes, for instance); we walk straight to it,
+// skipping sibling subtrees unread, and build Players/Groupings directly from the tokens.
+public class ESPNResponseParser {
+	// A league's athletes, filed under the team each plays for
+	public static AthleteIndex parseAthletes(JsonStreamReader reader) throws IOException {
+		AthleteIndex ret = new AthleteIndex();
+		if (!enterLeagueArray(reader, "athletes")) {
+			return ret;
+		}
+
+		while (reader.hasNext()) {
+			int id = 0;
+			String displayName = "";
+			String shortName = null;
+			String position = null;
+			String team = null;
+
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String name = reader.nextName();
+				if (name.equals("id")) {
+					id = parseId(nextString(reader, null));
+				}
+				else if (name.equals("displayName")) {
+					displayName = nextString(reader, "");
+				}
+				else if (name.equals("shortName")) {
+					shortName = nextString(reader, null);
+				}
+				else if (name.equals("position") && reader.peek() == JsonStreamReader.Token.BEGIN_OBJECT) {
+					position = readField(reader, "name");
+				}
+				else if (name.equals("team") && reader.peek() == JsonStreamReader.Token.BEGIN_OBJECT) {
+					team = readField(reader, "abbreviation");
+				}
+				else if (name.equals("teams") && reader.peek() == JsonStreamReader.Token.BEGIN_ARRAY) {
+					// Only the first; that's the team they're on now
+					reader.beginArray();
+					if (reader.hasNext() && reader.peek() == JsonStreamReader.Token.BEGIN_OBJECT) {
+						team = readField(reader, "abbreviation");
+					}
+					while (reader.hasNext()) {
+						reader.skipValue();
+					}
+					reader.endArray();
+				}
+				else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+
+			// AthleteIndex keeps the position as a Positions code, so each name is held once however many play it
+			ret.add(id, displayName, shortName, position != null ? position : Positions.MISSING, team);
+			// TODO: add URLs to APIs hash
+		}
+		return ret;
+	}
+
+	public static LinkedList<TeamGrouping> parseTeams(JsonStreamReader reader, Grouping league) throws IOException {
+		LinkedList<TeamGrouping> ret = new LinkedList<TeamGrouping>();
+		if (!enterLeagueArray(reader, "teams")) {
+			return ret;
+		}
+
+		while (reader.hasNext()) {
+			String name = "";
+			String abbrev = null;
+			String location = null;
+
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String field = reader.nextName();
+				if (field.equals("name")) {
+					name = nextString(reader, "");
+				}
+				else if (field.equals("abbreviation")) {
+					abbrev = nextString(reader, null);
+				}
+				else if (field.equals("location")) {
+					location = nextString(reader, null);
+				}
+				else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+
+			TeamGrouping newGroup = new TeamGrouping(StringPool.intern(name), StringPool.intern(abbrev != null ? abbrev : name), league);
+			newGroup.mImageID = R.drawable.fsm;
+			if (location != null) {
+				newGroup.mLocation = StringPool.intern(location);
+			}
+
+			ret.add(newGroup);
+			// TODO: add URLs to APIs hash
+		}
+		return ret;
+	}
+
+	public static LinkedList<Grouping> parseLeagues(JsonStreamReader reader, Grouping sport) throws IOException {
+		LinkedList<Grouping> ret = new LinkedList<Grouping>();
+		if (!enterSportArray(reader, "leagues")) {
+			return ret;
+		}
+
+		while (reader.hasNext()) {
+			String name = "";
+			String abbrev = null;
+
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String field = reader.nextName();
+				if (field.equals("name")) {
+					name = nextString(reader, "");
+				}
+				else if (field.equals("abbreviation")) {
+					abbrev = nextString(reader, null);
+				}
+				else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+
+			ret.add(new Grouping(Grouping.GroupingType.LEAGUE, StringPool.intern(name), StringPool.intern(abbrev != null ? abbrev : name), sport));
+			// TODO: add URLs to APIs hash
+		}
+		return ret;
+	}
+
+	public static LinkedList<NewsItem> parseNews(JsonStreamReader reader) throws IOException {
+		return parseNews(reader, null);
+	}
+
+	// Headlines whose id is in 'known' are dropped as they stream past, before we build an item for them or parse
+	// their date; a refresh then only costs what is new.  We can't stop at the first one we know, because the feed
+	// doesn't promise an order.  'known' may be null.
+	public static LinkedList<NewsItem> parseNews(JsonStreamReader reader, Set<String> known) throws IOException {
+		LinkedList<NewsItem> ret = new LinkedList<NewsItem>();
+		if (!enterArray(reader, "headlines")) {
+			return ret;
+		}
+
+		SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+		df.setTimeZone(TimeZone.getTimeZone("UTC"));
+		while (reader.hasNext()) {
+			String headline = null;
+			String id = null;
+			String published = null;
+			boolean seen = false;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String field = reader.nextName();
+				if (seen) {
+					reader.skipValue();
+				}
+				else if (field.equals("headline")) {
+					headline = nextString(reader, "");
+				}
+				else if (field.equals("id")) {
+					id = nextString(reader, "");
+					seen = known != null && known.contains(id);
+				}
+				else if (field.equals("published")) {
+					published = nextString(reader, null);
+				}
+				else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			if (seen) {
+				continue;
+			}
+
+			NewsItem newsItem = new NewsItem();
+			newsItem.mHeadline = headline;
+			newsItem.mID = id;
+			newsItem.mPublishDate = parseDate(df, published);
+			ret.add(newsItem);
+		}
+		return ret;
+	}
+
+	// An athlete id; 0 if there isn't one, or it isn't a number
+	private static int parseId(String id) {
+		if (id != null) {
+			try {
+				return Integer.parseInt(id);
+			}
+			catch (NumberFormatException e) {
+				Log.e("ESPNResponseParser", "Unexpected athlete id '" + id + "'");
+			}
+		}
+		return 0;
+	}
+
+	// Null if the feed didn't give us a date we can read; NewsStore sorts those last
+	private static Date parseDate(SimpleDateFormat df, String date) {
+		if (date != null) {
+			try {
+				return df.parse(date);
+			}
+			catch (ParseException e) {
+				Log.e("ESPNResponseParser", "Unparseable date '" + date + "'");
+			}
+		}
+		return null;
+	}
+
+	// Positions the reader inside the array 'name' of the top level object.  Returns false if there isn't one.
+	private static boolean enterArray(JsonStreamReader reader, String name) throws IOException {
+		reader.beginObject();
+		return findArray(reader, name);
+	}
+
+	// ... of sports[0]
+	private static boolean enterSportArray(JsonStreamReader reader, String name) throws IOException {
+		if (!enterArray(reader, "sports") || !reader.hasNext()) {
+			return false;
+		}
+		reader.beginObject();
+		return findArray(reader, name);
+	}
+
+	// ... of sports[0].leagues[0]
+	private static boolean enterLeagueArray(JsonStreamReader reader, String name) throws IOException {
+		if (!enterSportArray(reader, "leagues") || !reader.hasNext()) {
+			return false;
+		}
+		reader.beginObject();
+		return findArray(reader, name);
+	}
+
+	// Skips fields of the current object until it reaches array 'name', and steps into it
+	private static boolean findArray(JsonStreamReader reader, String name) throws IOException {
+		while (reader.hasNext()) {
+			if (reader.nextName().equals(name) && reader.peek() == JsonStreamReader.Token.BEGIN_ARRAY) {
+				reader.beginArray();
+				return true;
+			}
+			reader.skipValue();
+		}
+		return false;
+	}
+
+	// The string 'field' of the object the reader is at, which it steps over; null if it has none
+	private static String readField(JsonStreamReader reader, String field) throws IOException {
+		String ret = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			if (reader.nextName().equals(field)) {
+				ret = nextString(reader, null);
+			}
+			else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return ret;
+	}
+
+	private static String nextString(JsonStreamReader reader, String fallback) throws IOException {
+		String value = reader.nextString();
+		return value != null ? value : fallback;
+	}
+}
@@ -0,0 +1,116 @@
+package com.espn;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Date;
+import java.util.LinkedList;
+
+import com.espn.ScoreCenter.R;
+
+// EntityCodec writes loaded lists in a compact binary form for DiskCache, and reads them back.  Parents aren't
+// written; a list is always read back under the group it was loaded for, which the caller passes in.  Resource ids
+// aren't written either (they can change between builds), so images get the same defaults the parser assigns.
+public class EntityCodec {
+	public static void writeAthletes(DataOutputStream out, AthleteIndex athletes) throws IOException {
+		out.writeInt(athletes.size());
+		for (AthleteIndex.Athlete athlete : athletes.athletes()) {
+			out.writeInt(athlete.mID);
+			writeString(out, athlete.mDisplayName);
+			// The short name only when it's different; it usually isn't
+			writeString(out, athlete.mShortName != athlete.mDisplayName ? athlete.mShortName : null);
+			writeString(out, athlete.getPosition());
+			writeString(out, athletes.getTeam(athlete));
+		}
+	}
+
+	public static AthleteIndex readAthletes(DataInputStream in) throws IOException {
+		AthleteIndex ret = new AthleteIndex();
+		for (int i = in.readInt(); i > 0; i--) {
+			ret.add(in.readInt(), readString(in), readString(in), readString(in), readString(in));
+		}
+		return ret;
+	}
+
+	public static void writeTeams(DataOutputStream out, LinkedList<TeamGrouping> teams) throws IOException {
+		out.writeInt(teams.size());
+		for (TeamGrouping team : teams) {
+			writeString(out, team.mName);
+			writeString(out, team.mAbbreviation);
+			writeString(out, team.mLocation);
+		}
+	}
+
+	public static LinkedList<TeamGrouping> readTeams(DataInputStream in, Grouping league) throws IOException {
+		LinkedList<TeamGrouping> ret = new LinkedList<TeamGrouping>();
+		for (int i = in.readInt(); i > 0; i--) {
+			TeamGrouping team = new TeamGrouping(readPooled(in), readPooled(in), league);
+			team.mLocation = readPooled(in);
+			team.mImageID = R.drawable.fsm;
+			ret.add(team);
+		}
+		return ret;
+	}
+
+	public static void writeLeagues(DataOutputStream out, LinkedList<Grouping> leagues) throws IOException {
+		out.writeInt(leagues.size());
+		for (Grouping league : leagues) {
+			writeString(out, league.mName);
+			writeString(out, league.mAbbreviation);
+		}
+	}
+
+	public static LinkedList<Grouping> readLeagues(DataInputStream in, Grouping sport) throws IOException {
+		LinkedList<Grouping> ret = new LinkedList<Grouping>();
+		for (int i = in.readInt(); i > 0; i--) {
+			ret.add(new Grouping(Grouping.GroupingType.LEAGUE, readPooled(in), readPooled(in), sport));
+		}
+		return ret;
+	}
+
+	public static void writeNews(DataOutputStream out, LinkedList<NewsItem> news) throws IOException {
+		out.writeInt(news.size());
+		for (NewsItem item : news) {
+			writeString(out, item.mHeadline);
+			writeString(out, item.mID);
+			out.writeLong(item.mPublishDate != null ? item.mPublishDate.getTime() : Long.MIN_VALUE);
+		}
+	}
+
+	public static void writeNews(DataOutputStream out, NewsStore news) throws IOException {
+		writeNews(out, news.items());
+	}
+
+	public static NewsStore readNewsStore(DataInputStream in) throws IOException {
+		return new NewsStore().merge(readNews(in));
+	}
+
+	public static LinkedList<NewsItem> readNews(DataInputStream in) throws IOException {
+		LinkedList<NewsItem> ret = new LinkedList<NewsItem>();
+		for (int i = in.readInt(); i > 0; i--) {
+			NewsItem item = new NewsItem();
+			item.mHeadline = readString(in);
+			item.mID = readString(in);
+			long published = in.readLong();
+			item.mPublishDate = published != Long.MIN_VALUE ? new Date(published) : null;
+			ret.add(item);
+		}
+		return ret;
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		out.writeBoolean(s != null);
+		if (s != null) {
+			out.writeUTF(s);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	// ... for the names that repeat from one entry to the next; see StringPool
+	private static String readPooled(DataInputStream in) throws IOException {
+		return StringPool.intern(readString(in));
+	}
+}
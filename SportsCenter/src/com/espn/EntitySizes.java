@@ -0,0 +1,70 @@
+package com.espn;
+
+import java.util.Collection;
+
+// Rough estimates of the heap our model objects retain, for weighing cache entries.  They don't need to be exact,
+// only proportional: an object header and a reference per field, plus two bytes a char for strings.
+public class EntitySizes {
+	private static final int OBJECT = 16;
+	private static final int REF = 4;
+	private static final int LIST_NODE = OBJECT + 3 * REF;
+
+	public static long estimate(Object value) {
+		if (value == null) {
+			return 0;
+		}
+		else if (value instanceof Collection) {
+			long size = OBJECT + 4 * REF;
+			for (Object item : (Collection<?>)value) {
+				size += LIST_NODE + estimate(item);
+			}
+			return size;
+		}
+		else if (value instanceof AthleteIndex) {
+			// Each athlete is referenced twice, from the full list and from their team's, and has an int, two refs and a
+			// couple of codes of its own; positions are shared.  Then there's a table entry, a list and a map entry per team.
+			AthleteIndex index = (AthleteIndex)value;
+			long size = 4 * OBJECT + index.getTeamCount() * (3 * OBJECT + 6 * REF);
+			for (AthleteIndex.Athlete athlete : index.athletes()) {
+				size += OBJECT + 4 * REF + string(athlete.mDisplayName);
+				if (athlete.mShortName != athlete.mDisplayName) {
+					size += string(athlete.mShortName);
+				}
+			}
+			return size;
+		}
+		else if (value instanceof NewsStore) {
+			// The items, plus an id set entry apiece
+			NewsStore news = (NewsStore)value;
+			return 3 * OBJECT + estimate(news.items()) + news.size() * (OBJECT + 4 * REF);
+		}
+		else if (value instanceof Player) {
+			Player player = (Player)value;
+			long size = OBJECT + 6 * REF + string(player.mDisplayName);
+			return player.mShortName != player.mDisplayName ? size + string(player.mShortName) : size;
+		}
+		else if (value instanceof Grouping) {
+			// Just the node; whatever it holds is cached (and weighed) under its own key.  Its names are pooled (see
+			// StringPool), so they cost a reference and nothing more.
+			Grouping group = (Grouping)value;
+			long size = OBJECT + 6 * REF;
+			if (group instanceof TeamGrouping) {
+				size += 2 * REF;
+			}
+			return size;
+		}
+		else if (value instanceof NewsItem) {
+			NewsItem item = (NewsItem)value;
+			return OBJECT + 3 * REF + string(item.mHeadline) + string(item.mID) + OBJECT + 8;
+		}
+		else if (value instanceof String) {
+			return string((String)value);
+		}
+
+		return OBJECT;
+	}
+
+	private static long string(String s) {
+		return s == null ? 0 : OBJECT + 3 * REF + OBJECT + 2 * s.length();
+	}
+}
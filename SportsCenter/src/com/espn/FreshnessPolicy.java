@@ -0,0 +1,49 @@
+package com.espn;
+
+// FreshnessPolicy decides, per DataType, how long a cached load can be used.  For 'ttl' after it was fetched (or last
+// revalidated) an entry is fresh and used as is.  For a further 'maxStale' it is stale: we still hand it out
+// immediately, but revalidate it in the background.  Past that it has expired, and the caller waits for a fetch.
+public class FreshnessPolicy {
+	public enum Freshness {
+		FRESH, STALE, EXPIRED
+	}
+
+	private static final long MINUTE = 60 * 1000;
+	private static final long HOUR = 60 * MINUTE;
+	private static final long DAY = 24 * HOUR;
+
+	public FreshnessPolicy() {
+		// Headlines move quickly; leagues and teams hardly ever change; rosters change a few times a season
+		set(DataType.NEWS, 5 * MINUTE, 30 * MINUTE);
+		set(DataType.LEAGUES, DAY, 30 * DAY);
+		set(DataType.TEAMS, DAY, 30 * DAY);
+		set(DataType.PLAYERS, 6 * HOUR, 7 * DAY);
+	}
+
+	public synchronized void set(DataType type, long ttl, long maxStale) {
+		mTtl[type.ordinal()] = ttl;
+		mMaxStale[type.ordinal()] = maxStale;
+	}
+
+	public synchronized long getTtl(DataType type) {
+		return mTtl[type.ordinal()];
+	}
+
+	public synchronized long getMaxStale(DataType type) {
+		return mMaxStale[type.ordinal()];
+	}
+
+	public synchronized Freshness check(DataType type, long fetchTime) {
+		long age = System.currentTimeMillis() - fetchTime;
+		if (age <= mTtl[type.ordinal()]) {
+			return Freshness.FRESH;
+		}
+		else if (age <= mTtl[type.ordinal()] + mMaxStale[type.ordinal()]) {
+			return Freshness.STALE;
+		}
+		return Freshness.EXPIRED;
+	}
+
+	private final long[] mTtl = new long[DataType.values().length];
+	private final long[] mMaxStale = new long[DataType.values().length];
+}
@@ -0,0 +1,113 @@
+package com.espn;
+
+import java.util.Locale;
+
+// GroupPath is where a Grouping sits in the tree, worked out once when the Grouping is made: the sport, league and
+// team segments (lowercased abbreviations, the way the api's URLs and our CacheKeys spell them), the URL path they
+// make, and a hash of the lot.  Grouping hands out the same descriptor for as long as it lives, so building a key or
+// a URL is a few field reads instead of a walk up the parents and a toLowerCase() per level.
+//
+// The hash is the one CacheKey would compute from the same three segments, so a key can take it as it is.
+public final class GroupPath {
+	static final GroupPath ROOT = new GroupPath(null, null, null, null, null);
+
+	// The path of a child of type 'type' and abbreviation 'abbrev' under 'parent'
+	static GroupPath child(GroupPath parent, Grouping.GroupingType type, String abbrev) {
+		if (parent == null) {
+			parent = ROOT;
+		}
+
+		String segment = abbrev != null ? StringPool.intern(abbrev.toLowerCase(Locale.US)) : null;
+		switch (type) {
+		case SPORT:
+			return new GroupPath(segment, null, null, null, null);
+		case LEAGUE:
+			return new GroupPath(parent.mSport, segment, null, parent.getSportPath(), null);
+		case TEAM:
+			return new GroupPath(parent.mSport, parent.mLeague, segment, parent.getSportPath(), parent.getLeaguePath());
+		case NONE:
+		default:
+			return ROOT;
+		}
+	}
+
+	private GroupPath(String sport, String league, String team, GroupPath sportPath, GroupPath leaguePath) {
+		mSport = sport;
+		mLeague = league;
+		mTeam = team;
+		mSportPath = sportPath;
+		mLeaguePath = leaguePath;
+		mHash = hash(sport, league, team);
+
+		StringBuilder url = new StringBuilder();
+		StringBuilder path = new StringBuilder();
+		for (String s : new String[] {sport, league, team}) {
+			if (s != null) {
+				url.append('/').append(s);
+				path.append(path.length() > 0 ? "/" : "").append(s);
+			}
+		}
+		mUrlPath = url.toString();
+		mString = path.toString();
+	}
+
+	// The hash of a path made of these segments, any of which may be null.  CacheKey's is built on the same sum.
+	static int hash(String sport, String league, String team) {
+		int hash = sport != null ? sport.hashCode() : 0;
+		hash = 31 * hash + (league != null ? league.hashCode() : 0);
+		hash = 31 * hash + (team != null ? team.hashCode() : 0);
+		return hash;
+	}
+
+	// Just the sport of this path (itself, for a sport)
+	public GroupPath getSportPath() {
+		return mSportPath != null ? mSportPath : (mLeague == null && mTeam == null ? this : null);
+	}
+
+	// Down to the league (itself, for a league or anything above one)
+	public GroupPath getLeaguePath() {
+		return mLeaguePath != null ? mLeaguePath : (mTeam == null ? this : null);
+	}
+
+	// e.g. "/baseball/mlb", for putting after the api's base URL; "" for the root
+	public String getUrlPath() {
+		return mUrlPath;
+	}
+
+	@Override
+	public int hashCode() {
+		return mHash;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof GroupPath)) {
+			return false;
+		}
+
+		GroupPath other = (GroupPath)o;
+		return mHash == other.mHash && equal(mSport, other.mSport) && equal(mLeague, other.mLeague) && equal(mTeam, other.mTeam);
+	}
+
+	// e.g. "baseball/mlb"
+	@Override
+	public String toString() {
+		return mString;
+	}
+
+	private static boolean equal(String a, String b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	public final String mSport;		// null for the root
+	public final String mLeague;	// null above league level
+	public final String mTeam;		// null above team level
+	private final GroupPath mSportPath;
+	private final GroupPath mLeaguePath;
+	private final int mHash;
+	private final String mUrlPath;
+	private final String mString;
+}
@@ -1,16 +1,121 @@
 package com.espn;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReference;
 
 
+// Grouping is a node of the sport/league/team tree.  Its children are published as immutable, versioned Children
+// snapshots: a loader builds the next one on its own thread and swaps it in with a compare-and-set, and readers on any
+// thread take the current one without locking or copying.  Children are only ever appended, so a position read from
+// one snapshot is still good in every later one.
 public class Grouping {
 	public enum GroupingType {
 		NONE, SPORT, LEAGUE, TEAM
 	}
 	
+	// A group's children as of one version: in the order they were added, indexed by case folded name and
+	// abbreviation.  Never changes once built; with() makes the next one.
+	public static final class Children {
+		static final Children EMPTY = new Children(new ArrayList<Grouping>(0), new HashMap<String, Grouping>(0),
+				new HashMap<String, Grouping>(0), 0);
+		
+		private Children(ArrayList<Grouping> list, HashMap<String, Grouping> byName, HashMap<String, Grouping> byAbbreviation,
+				long version) {
+			mList = list;
+			mByName = byName;
+			mByAbbreviation = byAbbreviation;
+			mVersion = version;
+			mView = Collections.unmodifiableList(list);
+		}
+		
+		// These children plus those of 'added' we don't have a child of that name for (ignoring case, as get() does).
+		// Returns this if there are none.
+		public Children with(Collection<? extends Grouping> added) {
+			ArrayList<Grouping> list = null;
+			HashMap<String, Grouping> byName = null;
+			HashMap<String, Grouping> byAbbreviation = null;
+			for (Grouping grp : added) {
+				String name = fold(grp.mName);
+				if ((byName != null ? byName : mByName).containsKey(name)) {
+					continue;
+				}
+				
+				if (list == null) {
+					list = new ArrayList<Grouping>(mList.size() + added.size());
+					list.addAll(mList);
+					byName = new HashMap<String, Grouping>(mByName);
+					byAbbreviation = new HashMap<String, Grouping>(mByAbbreviation);
+				}
+				list.add(grp);
+				byName.put(name, grp);
+				if (grp.mAbbreviation != null) {
+					String abbrev = fold(grp.mAbbreviation);
+					if (!byAbbreviation.containsKey(abbrev)) {
+						byAbbreviation.put(abbrev, grp);
+					}
+				}
+			}
+			
+			return list != null ? new Children(list, byName, byAbbreviation, mVersion + 1) : this;
+		}
+		
+		// The child called 'name', ignoring case
+		public Grouping get(String name) {
+			return name != null ? mByName.get(fold(name)) : null;
+		}
+		
+		// The child called, or abbreviated, 'name', ignoring case; a name match wins
+		public Grouping find(String name) {
+			if (name == null) {
+				return null;
+			}
+			
+			String key = fold(name);
+			Grouping ret = mByName.get(key);
+			return ret != null ? ret : mByAbbreviation.get(key);
+		}
+		
+		public List<Grouping> list() {
+			return mView;
+		}
+		
+		public int size() {
+			return mList.size();
+		}
+		
+		// How many times the children have changed before this
+		public long getVersion() {
+			return mVersion;
+		}
+		
+		private final ArrayList<Grouping> mList;
+		private final List<Grouping> mView;
+		private final HashMap<String, Grouping> mByName;
+		private final HashMap<String, Grouping> mByAbbreviation;
+		private final long mVersion;
+	}
+	
+	// What mContents is
+	private class ContentsView extends AbstractList<Grouping> implements RandomAccess {
+		@Override
+		public Grouping get(int location) {
+			return mChildren.get().mList.get(location);
+		}
+		
+		@Override
+		public int size() {
+			return mChildren.get().mList.size();
+		}
+	}
+	
 	public GroupingType mCategoryType;	// 'Sport', 'League', 'Team', 'Player', or 'None'
 	public String mName; // 'Baseball', 'Blue Jays', 'NFL', etc
 	public String mAbbreviation;
@@ -18,62 +123,60 @@ public class Grouping {
 	public Grouping(GroupingType gt, String name, String abbrev, Grouping parent) {
 		mCategoryType = gt;
 		mName = name;
-		mParent = parent;
 		mAbbreviation = abbrev;
+		
+		// Our place in the tree can't change, so it's worked out here, once, from our parent's
+		mPath = GroupPath.child(parent != null ? parent.mPath : null, gt, abbrev);
+		mSport = gt == GroupingType.SPORT ? this : (gt != GroupingType.NONE && parent != null ? parent.mSport : null);
+		mLeague = gt == GroupingType.LEAGUE ? this : (gt != GroupingType.NONE && parent != null ? parent.mLeague : null);
 	}
 	
+	// The child called 'name', ignoring case
 	public Grouping get(String name) {
-		for (Grouping group : mContents) {
-			if (group.mName.compareToIgnoreCase(name) == 0) {
-				return group;
-			}
-		}
-		
-		return null;
+		return mChildren.get().get(name);
 	}
 	
+	// Adds 'grp' unless we already have a child of that name (ignoring case, as get() does)
 	public boolean add(Grouping grp) {
-		for (Grouping group : mContents) {
-			if (group.mName == grp.mName) {
-				return false;
+		return addAll(Collections.singletonList(grp)) > 0;
+	}
+	
+	// Adds those of 'groups' we don't already have, as one new version; safe to call from any thread.  Returns how
+	// many were added.
+	public int addAll(Collection<? extends Grouping> groups) {
+		while (true) {
+			Children current = mChildren.get();
+			Children next = current.with(groups);
+			if (next == current) {
+				return 0;
+			}
+			if (mChildren.compareAndSet(current, next)) {
+				return next.size() - current.size();
 			}
+			// Someone else published first; build on theirs
 		}
-		mContents.add(grp);
-		return true;
+	}
+	
+	// The children as they are now.  Hold on to it to see one consistent version across several reads.
+	public Children getChildren() {
+		return mChildren.get();
 	}
 	
 	public Grouping getSport() {
-		if (mCategoryType == GroupingType.NONE) {
-			return null;
-		}
-		else if (mCategoryType == GroupingType.SPORT) {
-			return this;
-		}
-		else {
-			return mParent.getSport();
-		}			
+		return mSport;
 	}
 	
 	public Grouping getLeague() {
-		if (mCategoryType == GroupingType.NONE) {
-			return null;
-		}
-		else if (mCategoryType == GroupingType.LEAGUE) {
-			return this;
-		}
-		else {
-			return mParent.getLeague();
-		}			
+		return mLeague;
+	}
+	
+	// Our sport/league/team segments, URL path and path hash; see GroupPath
+	public GroupPath getPath() {
+		return mPath;
 	}
 		
 	public Grouping getContentGroup(String name) {
-		for (Grouping grp : mContents) {
-			if (grp.mName.compareToIgnoreCase(name) == 0 || grp.mAbbreviation.compareToIgnoreCase(name) == 0) {
-				return grp;
-			}
-		}
-		
-		return null;
+		return mChildren.get().find(name);
 	}
 	
 	public TeamGrouping getTeam() {
@@ -85,6 +188,21 @@ public class Grouping {
 		return null;
 	}
 	
+	// The key DataLoader caches 'type' loads for this group under.  Built the first time it's asked for, then reused.
+	public CacheKey getCacheKey(DataType type) {
+		CacheKey[] keys = mCacheKeys;
+		if (keys == null) {
+			keys = mCacheKeys = new CacheKey[sDataTypes];
+		}
+		
+		CacheKey key = keys[type.ordinal()];
+		if (key == null) {
+			key = keys[type.ordinal()] = CacheKey.forGroup(type, this);
+		}
+		
+		return key;
+	}
+	
 	public String getAbbrev() {
 		String ret = mAbbreviation;
 		if (mAbbrevDisplayMap.containsKey(mAbbreviation.toLowerCase())) {
@@ -94,13 +212,25 @@ public class Grouping {
 		return ret;
 	}
 	
+	private static String fold(String s) {
+		return s == null ? "" : s.toLowerCase(Locale.US);
+	}
+	
 	private static final Map<String, String> mAbbrevDisplayMap = Collections.unmodifiableMap(new HashMap<String, String>() {{ 
         put("college-football", "NCAA");
         put("mens-college-basketball", "NCAA");
         put("womens-college-basketball", "NCAA (W)");
     }});
 	
-	public LinkedList<Grouping> mContents = new LinkedList<Grouping>();
-	private Grouping mParent;
+	private final AtomicReference<Children> mChildren = new AtomicReference<Children>(Children.EMPTY);
+	
+	// A read-only view of whatever the current children are.  Each call reads the latest version; since children are
+	// only appended, a size() and then get(position) are always safe together.
+	public final List<Grouping> mContents = new ContentsView();
+	private final GroupPath mPath;
+	private final Grouping mSport;		// this, for a sport; null above one
+	private final Grouping mLeague;		// ... for a league
 	public int mImageID = 0;	// optional, represents an image associated with this group (team logo, baseball image, etc)
+	private volatile CacheKey[] mCacheKeys = null;
+	private static final int sDataTypes = DataType.values().length;
 }
@@ -0,0 +1,317 @@
+package com.espn;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.params.ConnPerRouteBean;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.params.HttpProtocolParams;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+
+import android.util.Log;
+
+// HttpTransport owns the one HttpClient the whole app shares.  Connections are pooled per route and kept alive
+// between requests, so back to back loads against the API host (or the caching proxy) reuse an open socket
+// instead of paying for DNS and TCP setup every time.  Idle connections are evicted lazily, on the next request
+// after the eviction interval has passed, so we don't need a monitor thread of our own.
+//
+// It can also put a deadline on a request (abortAfter()), and race a slow request against a second copy of it
+// (the hedged execute()).
+public class HttpTransport {
+	public static final int DEFAULT_MAX_TOTAL = 8;
+	public static final int DEFAULT_MAX_PER_ROUTE = 2;
+	public static final long DEFAULT_KEEP_ALIVE = 30000;	// used when the server doesn't tell us how long to keep a connection
+	public static final long DEFAULT_IDLE_TIMEOUT = 30000;	// pooled connections unused for this long get closed
+
+	private static HttpTransport sInstance = null;
+
+	// Nothing we run should keep the process alive on its own
+	private static final ThreadFactory sDaemonThreads = new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "HttpTransport");
+			thread.setDaemon(true);
+			return thread;
+		}
+	};
+
+	// Supplies the second request for a hedged execute(), once the first has gone the hedge delay without a response
+	public static abstract class Hedge {
+		// Returns the request to race against the first, or null to keep waiting on the first alone (say, when there
+		// is no budget for another)
+		public abstract HttpUriRequest newRequest();
+
+		// Called if the second request's response is the one returned
+		public void won() {
+		}
+
+		// Called if the second request was sent but its response isn't the one returned; it has been aborted, or failed,
+		// without its body being read
+		public void lost() {
+		}
+	}
+
+	public static synchronized HttpTransport getInstance() {
+		if (sInstance == null) {
+			sInstance = new HttpTransport(DEFAULT_MAX_TOTAL, DEFAULT_MAX_PER_ROUTE);
+		}
+
+		return sInstance;
+	}
+
+	HttpTransport(int maxTotal, int maxPerRoute) {
+		HttpParams params = new BasicHttpParams();
+		HttpProtocolParams.setVersion(params, HttpVersion.HTTP_1_1);
+		HttpProtocolParams.setContentCharset(params, HTTP.UTF_8);
+
+		mConnPerRoute = new ConnPerRouteBean(maxPerRoute);
+		ConnManagerParams.setMaxTotalConnections(params, maxTotal);
+		ConnManagerParams.setMaxConnectionsPerRoute(params, mConnPerRoute);
+
+		SchemeRegistry registry = new SchemeRegistry();
+		registry.register(new Scheme("http", PlainSocketFactory.getSocketFactory(), 80));
+		registry.register(new Scheme("https", SSLSocketFactory.getSocketFactory(), 443));
+
+		mConnManager = new ThreadSafeClientConnManager(params, registry);
+		mClient = new DefaultHttpClient(mConnManager, params);
+		mClient.setKeepAliveStrategy(new ConnectionKeepAliveStrategy() {
+			@Override
+			public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+				// Honor 'Keep-Alive: timeout=N' if the server sends it, otherwise fall back to our default
+				HeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+				while (it.hasNext()) {
+					HeaderElement he = it.nextElement();
+					if (he.getValue() != null && he.getName().equalsIgnoreCase("timeout")) {
+						try {
+							return Long.parseLong(he.getValue()) * 1000;
+						}
+						catch (NumberFormatException e) {
+						}
+					}
+				}
+
+				return mKeepAlive;
+			}
+		});
+	}
+
+	// Sets the pool size for the route serving 'url' (only the scheme, host and port matter).  Must be called before
+	// the first request to that host; the pool for a route is sized when it is first created.
+	public void setMaxConnectionsForHost(String url, int max) {
+		HttpHost host = getHost(url);
+		if (host == null) {
+			Log.e("HttpTransport", "Can't set pool size, invalid url '" + url + "'");
+			return;
+		}
+
+		boolean secure = "https".equalsIgnoreCase(host.getSchemeName());
+		mConnPerRoute.setMaxForRoute(new HttpRoute(host, null, secure), max);
+	}
+
+	public void setKeepAlive(long keepAliveMillis) {
+		mKeepAlive = keepAliveMillis;
+	}
+
+	public void setIdleTimeout(long idleTimeoutMillis) {
+		mIdleTimeout = idleTimeoutMillis;
+	}
+
+	// Callers must either read the entity content to the end and close it, or abort the request; that is what
+	// hands the connection back to the pool.
+	public HttpResponse execute(HttpUriRequest request) throws IOException {
+		evictIdleConnections(false);
+		return mClient.execute(request);
+	}
+
+	// Sends 'request', and if there is no response within 'hedgeDelay' ms, sends hedge.newRequest() too.  Returns the
+	// first response to arrive, and aborts the other request.  If one of them fails we wait for the other; only if
+	// both fail does the first failure come back to us.
+	public HttpResponse execute(final HttpUriRequest request, long hedgeDelay, Hedge hedge) throws IOException {
+		evictIdleConnections(false);
+		ExecutorCompletionService<HttpResponse> race = new ExecutorCompletionService<HttpResponse>(getRequestPool());
+		Future<HttpResponse> first = race.submit(send(request));
+		Future<HttpResponse> second = null;
+		HttpUriRequest secondRequest = null;
+		boolean secondWon = false;
+		try {
+			Future<HttpResponse> done = race.poll(hedgeDelay, TimeUnit.MILLISECONDS);
+			if (done == null) {
+				secondRequest = hedge.newRequest();
+				if (secondRequest != null) {
+					Log.v("HttpTransport", "No response after " + hedgeDelay + "ms, hedging " + request.getURI());
+					second = race.submit(send(secondRequest));
+				}
+				done = race.take();
+			}
+
+			IOException failure;
+			try {
+				HttpResponse ret = done.get();
+				if (done == second) {
+					request.abort();
+					secondWon = true;
+					hedge.won();
+				}
+				else if (secondRequest != null) {
+					secondRequest.abort();
+				}
+				return ret;
+			}
+			catch (ExecutionException e) {
+				failure = unwrap(e);
+			}
+
+			// The first one back failed; the other, if there is one, is all we have left
+			if (second == null) {
+				throw failure;
+			}
+			try {
+				HttpResponse ret = race.take().get();
+				if (done == first) {
+					secondWon = true;
+					hedge.won();
+				}
+				return ret;
+			}
+			catch (ExecutionException e) {
+				throw failure;
+			}
+		}
+		catch (InterruptedException e) {
+			request.abort();
+			if (secondRequest != null) {
+				secondRequest.abort();
+			}
+			throw new InterruptedIOException("Interrupted waiting for a response");
+		}
+		finally {
+			if (secondRequest != null && !secondWon) {
+				hedge.lost();
+			}
+		}
+	}
+
+	// Aborts 'request' in 'timeoutMillis' ms, failing whatever connect or read it is blocked in by then.  Cancel the
+	// returned future once done with the request, body and all.
+	public ScheduledFuture<?> abortAfter(final HttpUriRequest request, long timeoutMillis) {
+		return getTimer().schedule(new Runnable() {
+			@Override
+			public void run() {
+				Log.w("HttpTransport", "Deadline passed, aborting " + request.getURI());
+				request.abort();
+			}
+		}, Math.max(0, timeoutMillis), TimeUnit.MILLISECONDS);
+	}
+
+	public void evictIdleConnections(boolean force) {
+		long now = System.currentTimeMillis();
+		if (!force && now - mLastEviction < mIdleTimeout / 2) {
+			return;
+		}
+
+		mLastEviction = now;
+		mConnManager.closeExpiredConnections();
+		mConnManager.closeIdleConnections(mIdleTimeout, TimeUnit.MILLISECONDS);
+	}
+
+	public void shutdown() {
+		mConnManager.shutdown();
+		synchronized (this) {
+			if (mRequestPool != null) {
+				mRequestPool.shutdownNow();
+			}
+			if (mTimer != null) {
+				mTimer.shutdownNow();
+			}
+		}
+	}
+
+	private Callable<HttpResponse> send(final HttpUriRequest request) {
+		return new Callable<HttpResponse>() {
+			@Override
+			public HttpResponse call() throws IOException {
+				return mClient.execute(request);
+			}
+		};
+	}
+
+	private static IOException unwrap(ExecutionException e) {
+		Throwable cause = e.getCause();
+		if (cause instanceof IOException) {
+			return (IOException)cause;
+		}
+		if (cause instanceof RuntimeException) {
+			throw (RuntimeException)cause;
+		}
+		IOException ret = new IOException(String.valueOf(cause));
+		ret.initCause(cause);
+		return ret;
+	}
+
+	// Hedged requests run here, so the caller can wait on whichever answers first
+	private synchronized ExecutorService getRequestPool() {
+		if (mRequestPool == null) {
+			mRequestPool = Executors.newCachedThreadPool(sDaemonThreads);
+		}
+		return mRequestPool;
+	}
+
+	private synchronized ScheduledExecutorService getTimer() {
+		if (mTimer == null) {
+			mTimer = Executors.newSingleThreadScheduledExecutor(sDaemonThreads);
+		}
+		return mTimer;
+	}
+
+	private static HttpHost getHost(String url) {
+		try {
+			URI uri = new URI(url);
+			if (uri.getHost() == null) {
+				return null;
+			}
+
+			return new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme());
+		}
+		catch (Exception e) {
+			return null;
+		}
+	}
+
+	private final ThreadSafeClientConnManager mConnManager;
+	private final DefaultHttpClient mClient;
+	private final ConnPerRouteBean mConnPerRoute;
+	private volatile long mKeepAlive = DEFAULT_KEEP_ALIVE;
+	private volatile long mIdleTimeout = DEFAULT_IDLE_TIMEOUT;
+	private volatile long mLastEviction = 0;
+	private ExecutorService mRequestPool = null;
+	private ScheduledExecutorService mTimer = null;
+}
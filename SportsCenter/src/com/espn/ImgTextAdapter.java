@@ -135,29 +135,12 @@ public class ImgTextAdapter extends BaseAdapter implements Filterable {
                     results.count = mOrigItemDatas.size();
                 }
             } else {
-                String prefixString = prefix.toString().toLowerCase();
-                
-                final ArrayList<ItemData> newValues = new ArrayList<ItemData>(mOrigItemDatas.size());
-
-                for (int i = 0; i < mOrigItemDatas.size(); i++) {
-                    final ItemData value = mOrigItemDatas.get(i);
-                    final String valueText = value.mText.toString().toLowerCase();
-
-                    // First match against the whole value
-                    if (valueText.startsWith(prefixString)) {
-                        newValues.add(value);
-                    } else {
-                        final String[] words = valueText.split(" |\\n|,|-");
-                        final int wordCount = words.length;
-
-                        for (int k = 0; k < wordCount; k++) {
-                            if (words[k].startsWith(prefixString)) {
-                                newValues.add(value);
-                                break;
-                            }
-                        }
-                    }
-                }
+                final ArrayList<ItemData> newValues = PrefixFilter.filter(mOrigItemDatas, prefix, new PrefixFilter.Text<ItemData>() {
+                	@Override
+                	public CharSequence textOf(ItemData item) {
+                		return item.mText;
+                	}
+                });
 
                 results.values = newValues;
                 results.count = newValues.size();
@@ -0,0 +1,408 @@
+package com.espn;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// JsonStreamReader is a small pull parser for JSON, read straight off a stream.  It has the same shape as
+// android.util.JsonReader (which needs API 11, and we still support 10): callers walk the document with
+// beginObject()/nextName()/nextString()/... and skipValue() past anything they don't care about.  Skipped values are
+// never turned into Strings, so the only objects we allocate are the ones we actually keep.
+public class JsonStreamReader {
+	public enum Token {
+		BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+	}
+
+	// What we are in the middle of, one entry per nesting level
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_ARRAY = 2;
+	private static final int NONEMPTY_ARRAY = 3;
+	private static final int EMPTY_OBJECT = 4;
+	private static final int DANGLING_NAME = 5;
+	private static final int NONEMPTY_OBJECT = 6;
+
+	public JsonStreamReader(Reader in) {
+		mIn = in;
+		push(EMPTY_DOCUMENT);
+	}
+
+	public Token peek() throws IOException {
+		if (mPeeked != null) {
+			return mPeeked;
+		}
+
+		int c;
+		switch (mStack[mStackSize - 1]) {
+		case EMPTY_ARRAY:
+			mStack[mStackSize - 1] = NONEMPTY_ARRAY;
+			c = nextNonWhitespace();
+			if (c == ']') {
+				return mPeeked = Token.END_ARRAY;
+			}
+			mPos--;
+			break;
+		case NONEMPTY_ARRAY:
+			c = nextNonWhitespace();
+			if (c == ']') {
+				return mPeeked = Token.END_ARRAY;
+			}
+			else if (c != ',') {
+				throw syntaxError("Expected ',' or ']'");
+			}
+			break;
+		case EMPTY_OBJECT:
+		case NONEMPTY_OBJECT:
+			boolean empty = mStack[mStackSize - 1] == EMPTY_OBJECT;
+			mStack[mStackSize - 1] = DANGLING_NAME;
+			c = nextNonWhitespace();
+			if (c == '}') {
+				return mPeeked = Token.END_OBJECT;
+			}
+			if (!empty) {
+				if (c != ',') {
+					throw syntaxError("Expected ',' or '}'");
+				}
+				c = nextNonWhitespace();
+			}
+			if (c != '"') {
+				throw syntaxError("Expected name");
+			}
+			return mPeeked = Token.NAME;
+		case DANGLING_NAME:
+			mStack[mStackSize - 1] = NONEMPTY_OBJECT;
+			if (nextNonWhitespace() != ':') {
+				throw syntaxError("Expected ':'");
+			}
+			break;
+		case EMPTY_DOCUMENT:
+			mStack[mStackSize - 1] = NONEMPTY_DOCUMENT;
+			break;
+		case NONEMPTY_DOCUMENT:
+			if (nextNonWhitespaceOrEOF() == -1) {
+				return mPeeked = Token.END_DOCUMENT;
+			}
+			throw syntaxError("Expected end of document");
+		}
+
+		// A value
+		c = nextNonWhitespace();
+		switch (c) {
+		case '{':
+			return mPeeked = Token.BEGIN_OBJECT;
+		case '[':
+			return mPeeked = Token.BEGIN_ARRAY;
+		case '"':
+			return mPeeked = Token.STRING;
+		case 't':
+		case 'f':
+			mPos--;
+			return mPeeked = Token.BOOLEAN;
+		case 'n':
+			mPos--;
+			return mPeeked = Token.NULL;
+		default:
+			if (c == '-' || (c >= '0' && c <= '9')) {
+				mPos--;
+				return mPeeked = Token.NUMBER;
+			}
+			throw syntaxError("Unexpected character '" + (char)c + "'");
+		}
+	}
+
+	public boolean hasNext() throws IOException {
+		Token token = peek();
+		return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+	}
+
+	public void beginObject() throws IOException {
+		expect(Token.BEGIN_OBJECT);
+		push(EMPTY_OBJECT);
+	}
+
+	public void endObject() throws IOException {
+		expect(Token.END_OBJECT);
+		mStackSize--;
+	}
+
+	public void beginArray() throws IOException {
+		expect(Token.BEGIN_ARRAY);
+		push(EMPTY_ARRAY);
+	}
+
+	public void endArray() throws IOException {
+		expect(Token.END_ARRAY);
+		mStackSize--;
+	}
+
+	public String nextName() throws IOException {
+		expect(Token.NAME);
+		return readString();
+	}
+
+	// Returns strings as is, and numbers and booleans as their literal text.  null comes back as null.
+	public String nextString() throws IOException {
+		Token token = peek();
+		mPeeked = null;
+		switch (token) {
+		case STRING:
+			return readString();
+		case NUMBER:
+		case BOOLEAN:
+			return readLiteral();
+		case NULL:
+			readLiteral();
+			return null;
+		default:
+			throw syntaxError("Expected a string but was " + token);
+		}
+	}
+
+	public long nextLong() throws IOException {
+		String value = nextString();
+		if (value == null) {
+			throw syntaxError("Expected a number but was null");
+		}
+
+		try {
+			return Long.parseLong(value);
+		}
+		catch (NumberFormatException e) {
+			try {
+				return (long)Double.parseDouble(value);
+			}
+			catch (NumberFormatException e2) {
+				throw syntaxError("Expected a number but was '" + value + "'");
+			}
+		}
+	}
+
+	public boolean nextBoolean() throws IOException {
+		expect(Token.BOOLEAN);
+		String literal = readLiteral();
+		if (literal.equals("true")) {
+			return true;
+		}
+		else if (literal.equals("false")) {
+			return false;
+		}
+		throw syntaxError("Expected a boolean but was '" + literal + "'");
+	}
+
+	public void nextNull() throws IOException {
+		expect(Token.NULL);
+		readLiteral();
+	}
+
+	// Skips the next value, including everything nested inside it
+	public void skipValue() throws IOException {
+		int depth = 0;
+		do {
+			Token token = peek();
+			mPeeked = null;
+			switch (token) {
+			case BEGIN_OBJECT:
+				push(EMPTY_OBJECT);
+				depth++;
+				break;
+			case BEGIN_ARRAY:
+				push(EMPTY_ARRAY);
+				depth++;
+				break;
+			case END_OBJECT:
+			case END_ARRAY:
+				mStackSize--;
+				depth--;
+				break;
+			case NAME:
+			case STRING:
+				skipString();
+				break;
+			case NUMBER:
+			case BOOLEAN:
+			case NULL:
+				skipLiteral();
+				break;
+			case END_DOCUMENT:
+				throw syntaxError("Unexpected end of document");
+			}
+		} while (depth > 0);
+	}
+
+	public void close() throws IOException {
+		mIn.close();
+	}
+
+	private void expect(Token expected) throws IOException {
+		Token token = peek();
+		if (token != expected) {
+			throw syntaxError("Expected " + expected + " but was " + token);
+		}
+		mPeeked = null;
+	}
+
+	private void push(int scope) {
+		if (mStackSize == mStack.length) {
+			int[] stack = new int[mStackSize * 2];
+			System.arraycopy(mStack, 0, stack, 0, mStackSize);
+			mStack = stack;
+		}
+		mStack[mStackSize++] = scope;
+	}
+
+	// The opening quote has already been consumed
+	private String readString() throws IOException {
+		StringBuilder sb = mBuilder;
+		sb.setLength(0);
+		while (true) {
+			int start = mPos;
+			while (mPos < mLimit) {
+				char c = mBuffer[mPos++];
+				if (c == '"') {
+					sb.append(mBuffer, start, mPos - start - 1);
+					return sb.toString();
+				}
+				else if (c == '\\') {
+					sb.append(mBuffer, start, mPos - start - 1);
+					sb.append(readEscape());
+					start = mPos;
+				}
+			}
+			sb.append(mBuffer, start, mPos - start);
+			if (!fill()) {
+				throw syntaxError("Unterminated string");
+			}
+		}
+	}
+
+	private void skipString() throws IOException {
+		while (true) {
+			while (mPos < mLimit) {
+				char c = mBuffer[mPos++];
+				if (c == '"') {
+					return;
+				}
+				else if (c == '\\') {
+					readEscape();
+				}
+			}
+			if (!fill()) {
+				throw syntaxError("Unterminated string");
+			}
+		}
+	}
+
+	private char readEscape() throws IOException {
+		char c = nextChar();
+		switch (c) {
+		case 'u':
+			int value = 0;
+			for (int i = 0; i < 4; i++) {
+				int digit = Character.digit(nextChar(), 16);
+				if (digit < 0) {
+					throw syntaxError("Invalid unicode escape");
+				}
+				value = (value << 4) | digit;
+			}
+			return (char)value;
+		case 'b':
+			return '\b';
+		case 'f':
+			return '\f';
+		case 'n':
+			return '\n';
+		case 'r':
+			return '\r';
+		case 't':
+			return '\t';
+		default:
+			return c;	// '"', '\\' and '/' stand for themselves
+		}
+	}
+
+	private String readLiteral() throws IOException {
+		StringBuilder sb = mBuilder;
+		sb.setLength(0);
+		while ((mPos < mLimit || fill()) && isLiteral(mBuffer[mPos])) {
+			sb.append(mBuffer[mPos++]);
+		}
+		return sb.toString();
+	}
+
+	private void skipLiteral() throws IOException {
+		while ((mPos < mLimit || fill()) && isLiteral(mBuffer[mPos])) {
+			mPos++;
+		}
+	}
+
+	private static boolean isLiteral(char c) {
+		switch (c) {
+		case ' ':
+		case '\t':
+		case '\r':
+		case '\n':
+		case ',':
+		case ':':
+		case '[':
+		case ']':
+		case '{':
+		case '}':
+		case '"':
+			return false;
+		default:
+			return true;
+		}
+	}
+
+	private int nextNonWhitespace() throws IOException {
+		int c = nextNonWhitespaceOrEOF();
+		if (c == -1) {
+			throw syntaxError("Unexpected end of document");
+		}
+		return c;
+	}
+
+	private int nextNonWhitespaceOrEOF() throws IOException {
+		while (mPos < mLimit || fill()) {
+			char c = mBuffer[mPos++];
+			if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+				return c;
+			}
+		}
+		return -1;
+	}
+
+	private char nextChar() throws IOException {
+		if (mPos == mLimit && !fill()) {
+			throw syntaxError("Unexpected end of document");
+		}
+		return mBuffer[mPos++];
+	}
+
+	// Only called once the buffer is used up, so nothing in it needs to be kept
+	private boolean fill() throws IOException {
+		int read = mIn.read(mBuffer, 0, mBuffer.length);
+		if (read <= 0) {
+			mPos = mLimit = 0;
+			return false;
+		}
+
+		mCharsRead += read;
+		mPos = 0;
+		mLimit = read;
+		return true;
+	}
+
+	private IOException syntaxError(String message) {
+		return new IOException(message + " near character " + (mCharsRead - mLimit + mPos));
+	}
+
+	private final Reader mIn;
+	private final char[] mBuffer = new char[4096];
+	private final StringBuilder mBuilder = new StringBuilder();
+	private int mPos = 0;
+	private int mLimit = 0;
+	private long mCharsRead = 0;
+	private int[] mStack = new int[16];
+	private int mStackSize = 0;
+	private Token mPeeked = null;
+}
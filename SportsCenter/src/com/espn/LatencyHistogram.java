@@ -0,0 +1,119 @@
+package com.espn;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// LatencyHistogram counts durations into fixed buckets on a roughly logarithmic scale, from a quarter of a millisecond
+// to half a minute.  Recording is a few atomic adds and no allocation, so it can stay on in release builds; the price
+// is that a percentile is only as precise as the bucket it lands in.
+public class LatencyHistogram {
+	// Upper bound of each bucket, in microseconds; one more bucket past the end takes everything longer
+	private static final long[] sBounds = {250, 500, 1000, 2000, 5000, 10000, 20000, 50000, 100000, 200000, 500000,
+		1000000, 2000000, 5000000, 10000000, 30000000};
+
+	public void record(long nanos) {
+		long micros = Math.max(0, nanos / 1000);
+		int bucket = 0;
+		while (bucket < sBounds.length && micros > sBounds[bucket]) {
+			bucket++;
+		}
+
+		mCounts.incrementAndGet(bucket);
+		mCount.incrementAndGet();
+		mTotalMicros.addAndGet(micros);
+		long max;
+		while (micros > (max = mMaxMicros.get()) && !mMaxMicros.compareAndSet(max, micros)) {
+		}
+	}
+
+	public long getCount() {
+		return mCount.get();
+	}
+
+	public long getTotalMicros() {
+		return mTotalMicros.get();
+	}
+
+	public long getMaxMicros() {
+		return mMaxMicros.get();
+	}
+
+	public double getMeanMillis() {
+		long count = getCount();
+		return count == 0 ? 0 : getTotalMicros() / 1000.0 / count;
+	}
+
+	// The upper bound of the bucket the 'percent'th percentile falls in, or the max if that's the overflow bucket
+	public double getPercentileMillis(double percent) {
+		long count = getCount();
+		if (count == 0) {
+			return 0;
+		}
+
+		long rank = (long)Math.ceil(percent / 100.0 * count);
+		long seen = 0;
+		for (int i = 0; i < sBounds.length; i++) {
+			seen += mCounts.get(i);
+			if (seen >= rank) {
+				return Math.min(sBounds[i], getMaxMicros()) / 1000.0;
+			}
+		}
+		return getMaxMicros() / 1000.0;
+	}
+
+	// An estimate of the 'percent'th percentile that assumes durations are spread evenly through the bucket it falls
+	// in, rather than all sitting at its top; for decisions that hang on the number itself, like a hedge delay
+	public double getInterpolatedPercentileMillis(double percent) {
+		long count = getCount();
+		if (count == 0) {
+			return 0;
+		}
+
+		long max = getMaxMicros();
+		long rank = Math.max(1, (long)Math.ceil(percent / 100.0 * count));
+		long seen = 0;
+		for (int i = 0; i <= sBounds.length; i++) {
+			long inBucket = mCounts.get(i);
+			if (inBucket > 0 && seen + inBucket >= rank) {
+				long low = i == 0 ? 0 : sBounds[i - 1];
+				long high = i < sBounds.length ? Math.min(sBounds[i], max) : max;
+				double fraction = (double)(rank - seen) / inBucket;
+				return (low + Math.max(0, high - low) * fraction) / 1000.0;
+			}
+			seen += inBucket;
+		}
+		return max / 1000.0;
+	}
+
+	public long getBucketCount(int bucket) {
+		return mCounts.get(bucket);
+	}
+
+	// Bucket i holds durations up to getBucketBounds()[i] microseconds; the last bucket, one past these, has the rest
+	public static long[] getBucketBounds() {
+		return sBounds.clone();
+	}
+
+	// A copy that stops changing; good enough for reporting, though a record() racing with it may be half counted
+	public LatencyHistogram copy() {
+		LatencyHistogram ret = new LatencyHistogram();
+		for (int i = 0; i < mCounts.length(); i++) {
+			ret.mCounts.set(i, mCounts.get(i));
+		}
+		ret.mCount.set(mCount.get());
+		ret.mTotalMicros.set(mTotalMicros.get());
+		ret.mMaxMicros.set(mMaxMicros.get());
+		return ret;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("n=%d mean=%.1fms p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms", getCount(), getMeanMillis(),
+			getPercentileMillis(50), getPercentileMillis(95), getPercentileMillis(99), getMaxMicros() / 1000.0);
+	}
+
+	private final AtomicLongArray mCounts = new AtomicLongArray(sBounds.length + 1);
+	private final AtomicLong mCount = new AtomicLong();
+	private final AtomicLong mTotalMicros = new AtomicLong();
+	private final AtomicLong mMaxMicros = new AtomicLong();
+}
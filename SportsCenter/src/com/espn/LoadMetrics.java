@@ -0,0 +1,199 @@
+package com.espn;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// LoadMetrics is where the data layer keeps score: for each DataType, a latency histogram per phase of a load, and
+// counters for bytes, cache outcomes and the like.  ESPNDataAccess and DataLoader record into the process-wide
+// instance; anyone can take a snapshot() and read it, or just print it.
+//
+// The phases of a fetch, as ESPNDataAccess sees them:
+//   QUEUE     waiting on the rate limiter
+//   CONNECT   from handing the request to the connection pool until the response headers are in; includes any
+//             connection setup and the server's think time
+//   TRANSFER  time spent blocked reading the body off the socket
+//   PARSE     the rest of the time spent on the body; decompression and parsing interleave with the transfer, so
+//             this is the body's wall time less TRANSFER
+//   FETCH     the whole request, start to finish
+// and LOAD is a DataLoader call as its caller sees it, cache hits and all.
+public class LoadMetrics {
+	public enum Phase {
+		QUEUE, CONNECT, TRANSFER, PARSE, FETCH, LOAD
+	}
+
+	public enum Counter {
+		MEMORY_HITS,		// loads answered from the memory tier (fresh or stale)
+		DISK_HITS,			// ... from the disk tier
+		MISSES,				// loads that had to wait for a fetch
+		COALESCED,			// fetches we didn't make, because the same one was already running
+		NOT_MODIFIED,		// fetches answered with a 304
+		ERRORS,				// fetches that failed
+		TIMEOUTS,			// ... of which, by running past their deadline
+		CANCELLED,			// fetches called off because nobody wanted the result any more; not counted as errors
+		THROTTLED,			// background fetches put off because no permit was free; not counted as errors either
+		HEDGES,				// second requests sent because the first was slow
+		HEDGE_WINS,			// ... that answered before the first
+		RESPONSES,			// response bodies read
+		WIRE_BYTES,			// body bytes as they came over the wire
+		DECODED_BYTES		// ... and once any content encoding was undone
+	}
+
+	private static final int sTypes = DataType.values().length;
+	private static final int sPhases = Phase.values().length;
+	private static final int sCounters = Counter.values().length;
+	private static LoadMetrics sInstance = null;
+
+	// A copy of the metrics at one point in time, plus the state of a DataLoader's memory tier if there was one
+	public static class Snapshot {
+		public LatencyHistogram getHistogram(DataType type, Phase phase) {
+			return mHistograms[type.ordinal()][phase.ordinal()];
+		}
+
+		public long get(DataType type, Counter counter) {
+			return mCounters[type.ordinal()][counter.ordinal()];
+		}
+
+		public long getTotal(Counter counter) {
+			long total = 0;
+			for (int i = 0; i < sTypes; i++) {
+				total += mCounters[i][counter.ordinal()];
+			}
+			return total;
+		}
+
+		// How much of the body time went to waiting on the network rather than to decoding and parsing, 0..1
+		public double getTransferShare(DataType type) {
+			long transfer = getHistogram(type, Phase.TRANSFER).getTotalMicros();
+			long body = transfer + getHistogram(type, Phase.PARSE).getTotalMicros();
+			return body == 0 ? 0 : (double)transfer / body;
+		}
+
+		public long getTime() {
+			return mTime;
+		}
+
+		// -1 when the snapshot wasn't taken through a DataLoader
+		public int getCacheEntries() {
+			return mCacheEntries;
+		}
+
+		public long getCacheWeight() {
+			return mCacheWeight;
+		}
+
+		public long getCacheMaxWeight() {
+			return mCacheMaxWeight;
+		}
+
+		public long getCacheEvictions() {
+			return mCacheEvictions;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			for (DataType type : DataType.values()) {
+				if (get(type, Counter.MEMORY_HITS) + get(type, Counter.DISK_HITS) + get(type, Counter.MISSES) +
+						getHistogram(type, Phase.FETCH).getCount() == 0) {
+					continue;
+				}
+
+				sb.append(type).append(":\n");
+				for (Phase phase : Phase.values()) {
+					LatencyHistogram histogram = getHistogram(type, phase);
+					if (histogram.getCount() > 0) {
+						sb.append("  ").append(phase).append(' ').append(histogram).append('\n');
+					}
+				}
+				sb.append("  hits ").append(get(type, Counter.MEMORY_HITS)).append(" memory, ").append(get(type, Counter.DISK_HITS))
+					.append(" disk; misses ").append(get(type, Counter.MISSES)).append("; coalesced ").append(get(type, Counter.COALESCED))
+					.append("; not modified ").append(get(type, Counter.NOT_MODIFIED)).append("; errors ").append(get(type, Counter.ERRORS))
+					.append(" (").append(get(type, Counter.TIMEOUTS)).append(" timeouts); cancelled ").append(get(type, Counter.CANCELLED))
+					.append("; throttled ").append(get(type, Counter.THROTTLED))
+					.append("; hedges ").append(get(type, Counter.HEDGES))
+					.append(" (").append(get(type, Counter.HEDGE_WINS)).append(" won)\n");
+				sb.append("  ").append(get(type, Counter.RESPONSES)).append(" responses, ").append(get(type, Counter.WIRE_BYTES))
+					.append(" bytes over the wire, ").append(get(type, Counter.DECODED_BYTES)).append(" decoded\n");
+			}
+			if (mCacheEntries >= 0) {
+				sb.append("memory cache: ").append(mCacheEntries).append(" entries, ").append(mCacheWeight).append(" of ")
+					.append(mCacheMaxWeight).append(" bytes, ").append(mCacheEvictions).append(" evictions\n");
+			}
+			return sb.toString();
+		}
+
+		private final LatencyHistogram[][] mHistograms = new LatencyHistogram[sTypes][sPhases];
+		private final long[][] mCounters = new long[sTypes][sCounters];
+		private long mTime;
+		private int mCacheEntries = -1;
+		private long mCacheWeight;
+		private long mCacheMaxWeight;
+		private long mCacheEvictions;
+	}
+
+	public static synchronized LoadMetrics getInstance() {
+		if (sInstance == null) {
+			sInstance = new LoadMetrics();
+		}
+		return sInstance;
+	}
+
+	public LoadMetrics() {
+		for (int i = 0; i < sTypes; i++) {
+			for (int j = 0; j < sPhases; j++) {
+				mHistograms[i][j] = new LatencyHistogram();
+			}
+			for (int j = 0; j < sCounters; j++) {
+				mCounters[i][j] = new AtomicLong();
+			}
+		}
+	}
+
+	public void record(DataType type, Phase phase, long nanos) {
+		mHistograms[type.ordinal()][phase.ordinal()].record(nanos);
+	}
+
+	public void increment(DataType type, Counter counter) {
+		mCounters[type.ordinal()][counter.ordinal()].incrementAndGet();
+	}
+
+	public void add(DataType type, Counter counter, long delta) {
+		mCounters[type.ordinal()][counter.ordinal()].addAndGet(delta);
+	}
+
+	public LatencyHistogram getHistogram(DataType type, Phase phase) {
+		return mHistograms[type.ordinal()][phase.ordinal()];
+	}
+
+	public long get(DataType type, Counter counter) {
+		return mCounters[type.ordinal()][counter.ordinal()].get();
+	}
+
+	public Snapshot snapshot() {
+		return snapshot(null);
+	}
+
+	// ... including the state of 'cache', if it isn't null
+	public Snapshot snapshot(MemoryCache<?, ?> cache) {
+		Snapshot ret = new Snapshot();
+		ret.mTime = System.currentTimeMillis();
+		for (int i = 0; i < sTypes; i++) {
+			for (int j = 0; j < sPhases; j++) {
+				ret.mHistograms[i][j] = mHistograms[i][j].copy();
+			}
+			for (int j = 0; j < sCounters; j++) {
+				ret.mCounters[i][j] = mCounters[i][j].get();
+			}
+		}
+
+		if (cache != null) {
+			ret.mCacheEntries = cache.size();
+			ret.mCacheWeight = cache.getWeight();
+			ret.mCacheMaxWeight = cache.getMaxWeight();
+			ret.mCacheEvictions = cache.getEvictionCount();
+		}
+		return ret;
+	}
+
+	private final LatencyHistogram[][] mHistograms = new LatencyHistogram[sTypes][sPhases];
+	private final AtomicLong[][] mCounters = new AtomicLong[sTypes][sCounters];
+}
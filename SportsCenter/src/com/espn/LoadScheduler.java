@@ -0,0 +1,302 @@
+package com.espn;
+
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// LoadScheduler runs background loads in place of AsyncTask, whose one shared queue puts a prefetch started in
+// onCreate ahead of the user's tap.  Each priority class gets its own bounded pool, so what is queued at a lower
+// priority never holds up a higher one; a load the user ends up asking for can be promoted out of a lower queue
+// before it starts, and a speculative task that would have to wait on something foreground work needs can put itself
+// back in its queue for later (see requeueCurrent()).  Tasks look like AsyncTasks: onPreExecute() on the caller's
+// thread, doInBackground() on a worker, and onPostExecute() (or onCancelled()) through the delivery Executor, which for
+// the activity posts to the UI thread.
+public class LoadScheduler {
+	public enum Priority {
+		USER_VISIBLE,		// what the user is looking at, waiting on
+		VISIBLE_SOON,		// on screen after a swipe, like the news tab
+		SPECULATIVE			// guesses at what the user will want next
+	}
+
+	private static final int[] sDefaultPoolSizes = {2, 2, 1};	// per Priority
+	private static final long sKeepAlive = 30;					// seconds an idle worker sticks around
+	private static final long sRequeueDelay = 1000;				// before a requeued task goes back in its queue
+	private static final int sMaxRequeues = 10;					// ... after which it delivers whatever it got
+	private static final ThreadLocal<Task<?>> sCurrent = new ThreadLocal<Task<?>>();	// what a worker is running
+	private static final Timer sRequeueTimer = new Timer("LoadScheduler-requeue", true);
+
+	public static abstract class Task<T> {
+		protected void onPreExecute() {
+		}
+
+		protected abstract T doInBackground();
+
+		protected void onPostExecute(T result) {
+		}
+
+		// Instead of onPostExecute, once cancel() has been called
+		protected void onCancelled() {
+		}
+
+		// A task that hasn't started never will; one that has runs to the end, but its result is dropped.  Returns
+		// whether it was stopped before it started.
+		public boolean cancel() {
+			mCancelled = true;
+			LoadScheduler scheduler = mScheduler;
+			return scheduler != null && scheduler.remove(this);
+		}
+
+		public boolean isCancelled() {
+			return mCancelled;
+		}
+
+		public Priority getPriority() {
+			return mPriority;
+		}
+
+		private volatile boolean mCancelled = false;
+		private volatile Priority mPriority = null;
+		private volatile LoadScheduler mScheduler = null;
+		private Object mKey = null;
+		private Job mJob = null;
+		private boolean mRequeue = false;	// only touched by the worker running the task
+		private int mRequeues = 0;
+	}
+
+	// What sits in a pool's queue on a task's behalf
+	private class Job implements Runnable {
+		Job(Task<?> task) {
+			mTask = task;
+		}
+
+		@Override
+		public void run() {
+			run(mTask);
+		}
+
+		private <T> void run(Task<T> task) {
+			if (task.isCancelled()) {
+				deliver(task, null);
+				return;
+			}
+			mStarted[task.mPriority.ordinal()].incrementAndGet();
+			T result;
+			sCurrent.set(task);
+			try {
+				result = task.doInBackground();
+			}
+			finally {
+				sCurrent.remove();
+			}
+			if (task.mRequeue) {
+				task.mRequeue = false;
+				requeue(this);
+				return;
+			}
+			deliver(task, result);
+		}
+
+		final Task<?> mTask;
+	}
+
+	// Where workers come from; speculative work gets the lowest thread priority, so it yields the cpu too
+	private static class Workers implements ThreadFactory {
+		Workers(Priority priority) {
+			mPriority = priority;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "LoadScheduler-" + mPriority + "-" + mCount.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setPriority(mPriority == Priority.SPECULATIVE ? Thread.MIN_PRIORITY : Thread.NORM_PRIORITY);
+			return thread;
+		}
+
+		private final Priority mPriority;
+		private final AtomicLong mCount = new AtomicLong();
+	}
+
+	// 'deliverer' runs onPostExecute() and onCancelled(); the activity hands us one that posts to its UI thread
+	public LoadScheduler(Executor deliverer) {
+		mDeliverer = deliverer;
+		for (Priority priority : Priority.values()) {
+			int size = sDefaultPoolSizes[priority.ordinal()];
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size, sKeepAlive, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new Workers(priority));
+			pool.allowCoreThreadTimeOut(true);
+			mPools[priority.ordinal()] = pool;
+			mStarted[priority.ordinal()] = new AtomicLong();
+		}
+	}
+
+	// The priority of the task running on the calling thread, or null if it isn't one of our workers
+	public static Priority getCurrentPriority() {
+		Task<?> task = sCurrent.get();
+		return task != null ? task.mPriority : null;
+	}
+
+	// For a speculative task whose work would have had to wait on something foreground work needs (a load that found
+	// no rate limit permit free, say): once its doInBackground() returns, the result is dropped and the task goes back
+	// in its queue a little later, to try again.  Returns false, doing nothing, if the calling thread isn't running a
+	// speculative task, or this one has been put back too often already.
+	public static boolean requeueCurrent() {
+		Task<?> task = sCurrent.get();
+		if (task == null || task.mPriority != Priority.SPECULATIVE || task.mRequeues == sMaxRequeues) {
+			return false;
+		}
+		task.mRequeue = true;
+		return true;
+	}
+
+	public void setPoolSize(Priority priority, int size) {
+		ThreadPoolExecutor pool = mPools[priority.ordinal()];
+		if (size > pool.getMaximumPoolSize()) {
+			pool.setMaximumPoolSize(size);
+			pool.setCorePoolSize(size);
+		}
+		else {
+			pool.setCorePoolSize(size);
+			pool.setMaximumPoolSize(size);
+		}
+	}
+
+	// Queues 'task' at 'priority'.  'key' names what it loads (a CacheKey, say), so a later request for the same thing
+	// at a higher priority can promote it; it may be null.  A lower priority task already queued for 'key' is promoted
+	// to 'priority' right away, on the grounds that someone now wants it sooner.
+	public void execute(Task<?> task, Priority priority, Object key) {
+		if (task.mScheduler != null) {
+			throw new IllegalStateException("Task already executed");
+		}
+
+		task.mScheduler = this;
+		task.mPriority = priority;
+		task.mKey = key;
+		task.mJob = new Job(task);
+
+		task.onPreExecute();
+		if (key != null) {
+			promote(key, priority);
+		}
+		mPools[priority.ordinal()].execute(task.mJob);
+	}
+
+	// Moves any task for 'key' still queued below 'priority' up to it.  Returns whether there was one.
+	public boolean promote(Object key, Priority priority) {
+		boolean ret = false;
+		for (Priority lower : Priority.values()) {
+			if (lower.ordinal() <= priority.ordinal()) {
+				continue;
+			}
+
+			ThreadPoolExecutor pool = mPools[lower.ordinal()];
+			for (Runnable queued : pool.getQueue().toArray(new Runnable[0])) {
+				Job job = (Job)queued;
+				if (key.equals(job.mTask.mKey) && pool.remove(job)) {
+					job.mTask.mPriority = priority;
+					mPools[priority.ordinal()].execute(job);
+					mPromotions.incrementAndGet();
+					ret = true;
+				}
+			}
+		}
+		return ret;
+	}
+
+	// Tasks waiting for a worker at 'priority'
+	public int getQueueDepth(Priority priority) {
+		return mPools[priority.ordinal()].getQueue().size();
+	}
+
+	// ... and running right now
+	public int getActiveCount(Priority priority) {
+		return mPools[priority.ordinal()].getActiveCount();
+	}
+
+	// Tasks that have started at 'priority' (counting a promoted one at the priority it ran at)
+	public long getStartedCount(Priority priority) {
+		return mStarted[priority.ordinal()].get();
+	}
+
+	public long getPromotionCount() {
+		return mPromotions.get();
+	}
+
+	public long getRequeueCount() {
+		return mRequeues.get();
+	}
+
+	public void shutdown() {
+		for (ThreadPoolExecutor pool : mPools) {
+			pool.shutdownNow();
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Priority priority : Priority.values()) {
+			sb.append(priority).append(": ").append(getQueueDepth(priority)).append(" queued, ").append(getActiveCount(priority))
+				.append(" running, ").append(getStartedCount(priority)).append(" started\n");
+		}
+		sb.append(getPromotionCount()).append(" promoted, ").append(getRequeueCount()).append(" requeued\n");
+		return sb.toString();
+	}
+
+	private boolean remove(Task<?> task) {
+		Priority priority = task.mPriority;
+		if (priority == null || !mPools[priority.ordinal()].remove(task.mJob)) {
+			return false;
+		}
+		deliver(task, null);
+		return true;
+	}
+
+	// A promote() while the task is out of its queue misses it; whoever wanted it sooner loads it themselves
+	private void requeue(final Job job) {
+		final Task<?> task = job.mTask;
+		task.mRequeues++;
+		mRequeues.incrementAndGet();
+		sRequeueTimer.schedule(new TimerTask() {
+			@Override
+			public void run() {
+				if (task.isCancelled()) {
+					deliver(task, null);
+					return;
+				}
+				try {
+					mPools[task.mPriority.ordinal()].execute(job);
+				}
+				catch (RejectedExecutionException e) {
+					// Shut down while it waited; it never will run
+				}
+			}
+		}, sRequeueDelay);
+	}
+
+	private <T> void deliver(final Task<T> task, final T result) {
+		mDeliverer.execute(new Runnable() {
+			@Override
+			public void run() {
+				if (task.isCancelled()) {
+					task.onCancelled();
+				}
+				else {
+					task.onPostExecute(result);
+				}
+			}
+		});
+	}
+
+	private final Executor mDeliverer;
+	private final ThreadPoolExecutor[] mPools = new ThreadPoolExecutor[Priority.values().length];
+	private final AtomicLong[] mStarted = new AtomicLong[Priority.values().length];
+	private final AtomicLong mPromotions = new AtomicLong();
+	private final AtomicLong mRequeues = new AtomicLong();
+}
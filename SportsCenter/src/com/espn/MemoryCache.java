@@ -0,0 +1,160 @@
+package com.espn;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// MemoryCache is an LRU cache bounded by the total weight of its values rather than by how many there are; a
+// league-wide roster and a list of five leagues are one entry each, but nowhere near the same size.  The caller
+// supplies a Weigher that estimates each value's retained bytes.
+//
+// It is safe to use from any number of loader threads.  Entries live in a ConcurrentHashMap, so a get() takes no lock;
+// instead of moving the entry to the head of a shared list, a hit just stamps it with a tick from a global clock.
+// When a put() takes us over budget, one thread at a time evicts the entries with the oldest stamps, which
+// approximates LRU closely enough without making every hit contend on one lock.
+public class MemoryCache<K, V> {
+	public interface Weigher<V> {
+		long weigh(V value);
+	}
+
+	private static class Node<V> {
+		Node(V value, long weight, long tick) {
+			mValue = value;
+			mWeight = weight;
+			mLastAccess = tick;
+		}
+
+		final V mValue;
+		final long mWeight;
+		volatile long mLastAccess;
+	}
+
+	public MemoryCache(long maxWeight, Weigher<V> weigher) {
+		mMaxWeight = maxWeight;
+		mWeigher = weigher;
+	}
+
+	public V get(K key) {
+		Node<V> node = mMap.get(key);
+		if (node == null) {
+			mMisses.incrementAndGet();
+			return null;
+		}
+
+		node.mLastAccess = mClock.incrementAndGet();
+		mHits.incrementAndGet();
+		return node.mValue;
+	}
+
+	// The value for 'key' if we have it, without counting a hit or a miss or making it any more recently used
+	public V peek(K key) {
+		Node<V> node = mMap.get(key);
+		return node != null ? node.mValue : null;
+	}
+
+	public void put(K key, V value) {
+		Node<V> node = new Node<V>(value, mWeigher.weigh(value), mClock.incrementAndGet());
+		Node<V> old = mMap.put(key, node);
+		mWeight.addAndGet(node.mWeight - (old != null ? old.mWeight : 0));
+		if (mWeight.get() > mMaxWeight) {
+			// Go a little under budget, so we aren't back here sorting on the very next put
+			trimTo(mMaxWeight - mMaxWeight / 10);
+		}
+	}
+
+	public V remove(K key) {
+		Node<V> node = mMap.remove(key);
+		if (node == null) {
+			return null;
+		}
+
+		mWeight.addAndGet(-node.mWeight);
+		return node.mValue;
+	}
+
+	// Evicts least recently used entries until the total weight is at most 'maxWeight'
+	public void trimTo(long maxWeight) {
+		mEvictionLock.lock();
+		try {
+			if (mWeight.get() <= maxWeight) {
+				return;
+			}
+
+			// Snapshot the stamps first; they keep moving while we sort
+			ArrayList<Map.Entry<K, Long>> byAge = new ArrayList<Map.Entry<K, Long>>(mMap.size());
+			for (Map.Entry<K, Node<V>> e : mMap.entrySet()) {
+				byAge.add(new AbstractMap.SimpleEntry<K, Long>(e.getKey(), e.getValue().mLastAccess));
+			}
+			Collections.sort(byAge, new Comparator<Map.Entry<K, Long>>() {
+				@Override
+				public int compare(Map.Entry<K, Long> lhs, Map.Entry<K, Long> rhs) {
+					return lhs.getValue().compareTo(rhs.getValue());
+				}
+			});
+
+			for (int i = 0; i < byAge.size() && mWeight.get() > maxWeight; i++) {
+				Node<V> node = mMap.get(byAge.get(i).getKey());
+				// Skip anything used since the snapshot, and only remove the node we looked at
+				if (node != null && node.mLastAccess == byAge.get(i).getValue() && mMap.remove(byAge.get(i).getKey(), node)) {
+					mWeight.addAndGet(-node.mWeight);
+					mEvictions.incrementAndGet();
+				}
+			}
+		}
+		finally {
+			mEvictionLock.unlock();
+		}
+	}
+
+	public void clear() {
+		for (K key : mMap.keySet()) {
+			if (remove(key) != null) {
+				mEvictions.incrementAndGet();
+			}
+		}
+	}
+
+	public void setMaxWeight(long maxWeight) {
+		mMaxWeight = maxWeight;
+		trimTo(maxWeight);
+	}
+
+	public long getMaxWeight() {
+		return mMaxWeight;
+	}
+
+	public long getWeight() {
+		return mWeight.get();
+	}
+
+	public int size() {
+		return mMap.size();
+	}
+
+	public long getHitCount() {
+		return mHits.get();
+	}
+
+	public long getMissCount() {
+		return mMisses.get();
+	}
+
+	public long getEvictionCount() {
+		return mEvictions.get();
+	}
+
+	private final ConcurrentHashMap<K, Node<V>> mMap = new ConcurrentHashMap<K, Node<V>>(64, 0.75f, 4);
+	private final ReentrantLock mEvictionLock = new ReentrantLock();
+	private final Weigher<V> mWeigher;
+	private volatile long mMaxWeight;
+	private final AtomicLong mClock = new AtomicLong();
+	private final AtomicLong mWeight = new AtomicLong();
+	private final AtomicLong mHits = new AtomicLong();
+	private final AtomicLong mMisses = new AtomicLong();
+	private final AtomicLong mEvictions = new AtomicLong();
+}
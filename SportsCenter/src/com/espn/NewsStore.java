@@ -0,0 +1,164 @@
+package com.espn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+// NewsStore is the headlines we have for one news feed, newest first and capped at a fixed number, so a busy league's
+// feed doesn't grow without bound.  A refresh only has to parse and merge the headlines we haven't seen (their ids
+// are in getIds(), for the parser to skip the rest) and the UI only has to redraw the rows diff() says changed.
+//
+// Headlines are told apart by id; one the feed gave no id is known by its headline and publish date instead.
+//
+// A store never changes once built; merge() returns a new one.  That way the copy the cache and the UI hold can be
+// read from any thread.
+public class NewsStore {
+	public static final int DEFAULT_CAPACITY = 50;
+
+	// How to turn a view of one store into a view of another: take out the rows at mRemoved (positions in the old
+	// store, highest first), then put in mAdded's items at mAddedAt (positions in the new store, lowest first)
+	public static class Delta {
+		Delta(int[] removed, List<NewsItem> added, int[] addedAt) {
+			mRemoved = removed;
+			mAdded = added;
+			mAddedAt = addedAt;
+		}
+
+		public boolean isEmpty() {
+			return mRemoved.length == 0 && mAdded.isEmpty();
+		}
+
+		public final int[] mRemoved;
+		public final List<NewsItem> mAdded;
+		public final int[] mAddedAt;
+	}
+
+	// Newest first; an item without a publish date sorts as the oldest
+	private static final Comparator<NewsItem> sNewestFirst = new Comparator<NewsItem>() {
+		@Override
+		public int compare(NewsItem lhs, NewsItem rhs) {
+			long l = lhs.mPublishDate != null ? lhs.mPublishDate.getTime() : Long.MIN_VALUE;
+			long r = rhs.mPublishDate != null ? rhs.mPublishDate.getTime() : Long.MIN_VALUE;
+			return l < r ? 1 : (l > r ? -1 : 0);
+		}
+	};
+
+	public NewsStore() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public NewsStore(int capacity) {
+		mCapacity = capacity;
+	}
+
+	// A store with our items plus those of 'fresh' we don't already have, cut back to our capacity
+	public NewsStore merge(List<NewsItem> fresh) {
+		NewsStore ret = new NewsStore(mCapacity);
+		ret.mItems.addAll(mItems);
+		ret.mKeys.addAll(mKeys);
+		ret.mIds.addAll(mIds);
+		boolean added = false;
+		for (NewsItem item : fresh) {
+			if (ret.mKeys.add(key(item))) {
+				ret.mItems.add(item);
+				if (item.mID != null) {
+					ret.mIds.add(item.mID);
+				}
+				added = true;
+			}
+		}
+
+		if (added) {
+			// Stable, so items published at the same moment keep the order they had, and the feed gave them
+			Collections.sort(ret.mItems, sNewestFirst);
+			while (ret.mItems.size() > mCapacity) {
+				NewsItem dropped = ret.mItems.remove(ret.mItems.size() - 1);
+				ret.mKeys.remove(key(dropped));
+				if (dropped.mID != null) {
+					ret.mIds.remove(dropped.mID);
+				}
+			}
+		}
+		return ret;
+	}
+
+	// What changed between 'shown' and us.  Items we both have keep their order relative to each other (merge() sorts
+	// stably), so taking out what we dropped and putting in what we added, each at its own position, lines a view of
+	// 'shown' up with us row for row; new headlines that sort below the top included.
+	public Delta diff(NewsStore shown) {
+		ArrayList<Integer> removed = new ArrayList<Integer>();
+		for (int i = shown.mItems.size() - 1; i >= 0; i--) {
+			if (!mKeys.contains(key(shown.mItems.get(i)))) {
+				removed.add(i);
+			}
+		}
+
+		ArrayList<NewsItem> added = new ArrayList<NewsItem>();
+		ArrayList<Integer> addedAt = new ArrayList<Integer>();
+		for (int i = 0; i < mItems.size(); i++) {
+			NewsItem item = mItems.get(i);
+			if (!shown.mKeys.contains(key(item))) {
+				added.add(item);
+				addedAt.add(i);
+			}
+		}
+		return new Delta(toArray(removed), added, toArray(addedAt));
+	}
+
+	// Everything, newest first, as a list the caller can keep
+	public LinkedList<NewsItem> items() {
+		return new LinkedList<NewsItem>(mItems);
+	}
+
+	public NewsItem getNewest() {
+		return mItems.isEmpty() ? null : mItems.get(0);
+	}
+
+	public Date getNewestDate() {
+		NewsItem newest = getNewest();
+		return newest != null ? newest.mPublishDate : null;
+	}
+
+	public Set<String> getIds() {
+		return Collections.unmodifiableSet(mIds);
+	}
+
+	public boolean contains(String id) {
+		return mIds.contains(id);
+	}
+
+	public int size() {
+		return mItems.size();
+	}
+
+	public int getCapacity() {
+		return mCapacity;
+	}
+
+	// What we tell 'item' apart by: its id, or failing that its headline and publish date.  The NUL keeps the two
+	// kinds from colliding; ids never contain one.
+	private static String key(NewsItem item) {
+		if (item.mID != null) {
+			return item.mID;
+		}
+		return "\0" + item.mHeadline + "\0" + (item.mPublishDate != null ? item.mPublishDate.getTime() : "");
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[] ret = new int[list.size()];
+		for (int i = 0; i < ret.length; i++) {
+			ret[i] = list.get(i);
+		}
+		return ret;
+	}
+
+	private final int mCapacity;
+	private final ArrayList<NewsItem> mItems = new ArrayList<NewsItem>();
+	private final HashSet<String> mIds = new HashSet<String>();		// of the items that have one
+	private final HashSet<String> mKeys = new HashSet<String>();		// key() of every item
+}
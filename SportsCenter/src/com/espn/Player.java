@@ -7,9 +7,15 @@ public class Player {
 		mTeam = team;
 	}
 	
+	// Who this is, for telling players apart: the api's id if we have one, otherwise the display name
+	public Object getKey() {
+		return mID != 0 ? (Object)Integer.valueOf(mID) : mDisplayName;
+	}
+	
+	public int mID = 0;			// the api's athlete id; 0 if we weren't told
 	public String mDisplayName;
 	public String mShortName;
-	public String mPosition;
+	public String mPosition;	// shared with every other player in the position; see Positions
 	public TeamGrouping mTeam;
 	public int mHeadshot = 0;	// resource handle to headshot
 }
@@ -0,0 +1,41 @@
+package com.espn;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+// Positions is the dictionary a player's position is encoded against: AthleteIndex keeps a byte per athlete instead of
+// a String, and every Player on the same position shares one copy of its name.  The api's positions are a small set
+// (a few dozen across every sport), but not one we know up front, so new ones are added as they turn up.
+public class Positions {
+	public static final byte UNKNOWN = -1;
+	private static final int sMaxCodes = Byte.MAX_VALUE + 1;
+
+	// What a player is listed as when the api doesn't say what they play
+	public static final String MISSING = "Unknown";
+
+	// 'name''s code, assigning it one if it's new.  UNKNOWN for null, or once the dictionary is full.
+	public static synchronized byte code(String name) {
+		if (name == null) {
+			return UNKNOWN;
+		}
+
+		Byte ret = sCodes.get(name);
+		if (ret == null) {
+			if (sNames.size() == sMaxCodes) {
+				return UNKNOWN;
+			}
+			ret = (byte)sNames.size();
+			sNames.add(name);
+			sCodes.put(name, ret);
+		}
+		return ret;
+	}
+
+	// The name 'code' stands for, or null for UNKNOWN
+	public static synchronized String name(byte code) {
+		return code >= 0 && code < sNames.size() ? sNames.get(code) : null;
+	}
+
+	private static final ArrayList<String> sNames = new ArrayList<String>();
+	private static final HashMap<String, Byte> sCodes = new HashMap<String, Byte>();
+}
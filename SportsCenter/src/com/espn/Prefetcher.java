@@ -0,0 +1,291 @@
+package com.espn;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import android.util.Log;
+
+// Prefetcher warms DataLoader's cache for the next level down from what is on screen, on LoadScheduler's speculative
+// pool: the rosters of the first teams in a league's grid, or the team lists of a sport's leagues.  If the user then
+// goes there, the load is a memory hit; if they ask while the prefetch is still queued, the scheduler promotes it.
+//
+// Prefetches spend from a budget of network requests and body bytes per rolling minute; one that would go over it
+// is skipped.  That caps how much we prefetch, but ESPN's quota is shared out by the rate limits, and there a prefetch
+// never waits for a permit: it only goes if one is free right now, so it can't hold up a load the user is waiting on.
+// One that finds none is put off and requeued (see DataLoader).  Nothing already fresh in the cache is prefetched at
+// all, and only a prefetch that actually went to the network counts as having warmed anything.  Of those, we keep
+// score of how many the user went on to use (the hit rate), how many came too late, and how many went to waste, so the
+// budget and the fan out can be tuned from real numbers.
+public class Prefetcher implements DataLoader.FetchListener {
+	public static final int DEFAULT_MAX_REQUESTS = 10;			// per minute
+	public static final long DEFAULT_MAX_BYTES = 512 * 1024;	// per minute
+	private static final long sWindow = 60000;
+	private static final int sMaxWarmed = 64;					// prefetched keys we remember, waiting to see them used
+
+	// One prefetch; which load it makes is up to the subclass
+	private abstract class Prefetch extends LoadScheduler.Task<Object> {
+		Prefetch(CacheKey key) {
+			mKey = key;
+		}
+
+		abstract Object load();
+
+		@Override
+		protected Object doInBackground() {
+			// A promoted prefetch is one the user is waiting on, so it's no longer ours to hold back or charge for
+			if (getPriority() != LoadScheduler.Priority.SPECULATIVE) {
+				return load();
+			}
+			if (!spend()) {
+				Log.v("Prefetcher", "Over budget, skipping " + mKey);
+				return null;
+			}
+
+			synchronized (Prefetcher.this) {
+				mRunning.add(mKey);
+			}
+			try {
+				return load();
+			}
+			finally {
+				synchronized (Prefetcher.this) {
+					mRunning.remove(mKey);
+					mFetchedIt = mFetchedKeys.remove(mKey);
+				}
+			}
+		}
+
+		@Override
+		protected void onPostExecute(Object result) {
+			synchronized (Prefetcher.this) {
+				mQueued.remove(this);
+				// A cache hit, or a fetch someone else had already started, warmed nothing
+				if (result == null || !mFetchedIt) {
+					return;
+				}
+				if (getPriority() == LoadScheduler.Priority.SPECULATIVE) {
+					mCompleted++;
+					mWarmed.put(mKey, mKey);
+				}
+			}
+		}
+
+		@Override
+		protected void onCancelled() {
+			synchronized (Prefetcher.this) {
+				mQueued.remove(this);
+			}
+		}
+
+		final CacheKey mKey;
+		private boolean mFetchedIt = false;		// whether our key went to the network while we ran; guarded by Prefetcher.this
+	}
+
+	public Prefetcher(DataLoader loader, LoadScheduler scheduler) {
+		mLoader = loader;
+		mScheduler = scheduler;
+		mLoader.setFetchListener(this);
+	}
+
+	public synchronized void setBudget(int requestsPerMinute, long bytesPerMinute) {
+		mMaxRequests = requestsPerMinute;
+		mMaxBytes = bytesPerMinute;
+	}
+
+	// Rosters for the first 'max' of 'teams', in order.  Replaces whatever the last call queued that hasn't started yet.
+	// Teams of one league share their league's AthleteIndex, so they share a prefetch too.
+	public void prefetchRosters(List<? extends Grouping> teams, int max) {
+		ArrayList<Prefetch> batch = new ArrayList<Prefetch>();
+		HashSet<CacheKey> keys = new HashSet<CacheKey>();
+		int count = 0;
+		for (Grouping group : teams) {
+			if (count == max) {
+				break;
+			}
+			TeamGrouping team = group.getTeam();
+			if (team == null || team.size() > 0) {
+				continue;
+			}
+			count++;
+			final Grouping league = team.getLeague();
+			CacheKey key = team.getCacheKey(DataType.PLAYERS);
+			if (keys.add(key) && !mLoader.isFresh(key)) {
+				batch.add(new Prefetch(key) {
+					@Override
+					Object load() {
+						return mLoader.LoadAthletesFromLeague(league, false, null);
+					}
+				});
+			}
+		}
+		submit(batch);
+	}
+
+	// Team lists for the first 'max' of 'leagues' that have none yet, on the league or fresh in the cache.  Replaces the last call's queue, as above.
+	public void prefetchTeams(List<Grouping> leagues, int max) {
+		ArrayList<Prefetch> batch = new ArrayList<Prefetch>();
+		for (final Grouping league : leagues) {
+			if (batch.size() == max) {
+				break;
+			}
+			if (league.mCategoryType != Grouping.GroupingType.LEAGUE || league.mContents.size() > 0
+					|| mLoader.isFresh(league.getCacheKey(DataType.TEAMS))) {
+				continue;
+			}
+			batch.add(new Prefetch(league.getCacheKey(DataType.TEAMS)) {
+				@Override
+				Object load() {
+					return mLoader.LoadTeamsFromLeague(league);
+				}
+			});
+		}
+		submit(batch);
+	}
+
+	// The user has asked for 'key' for real; this is how we find out whether a prefetch got there first
+	public synchronized void onDemand(CacheKey key) {
+		mDemands++;
+		if (mWarmed.remove(key) != null) {
+			mUsed++;
+		}
+		else if (mRunning.contains(key) || isQueued(key)) {
+			mLate++;
+		}
+	}
+
+	@Override
+	public synchronized void onThrottled(CacheKey key) {
+		if (mRunning.contains(key)) {
+			mThrottled++;
+		}
+	}
+
+	@Override
+	public void onFetch(CacheKey key, long wireBytes) {
+		synchronized (this) {
+			if (mRunning.contains(key)) {
+				mFetchedKeys.add(key);
+				mSpent.addLast(new long[] {System.currentTimeMillis(), wireBytes});
+				mFetched++;
+				mBytes += wireBytes;
+			}
+		}
+	}
+
+	// Of the prefetches that warmed the cache, the fraction the user went on to ask for
+	public synchronized double getHitRate() {
+		return mCompleted == 0 ? 0 : (double)mUsed / mCompleted;
+	}
+
+	public synchronized long getCompletedCount() {
+		return mCompleted;
+	}
+
+	public synchronized long getUsedCount() {
+		return mUsed;
+	}
+
+	public synchronized long getLateCount() {
+		return mLate;
+	}
+
+	public synchronized long getSkippedCount() {
+		return mSkipped;
+	}
+
+	public synchronized long getWastedCount() {
+		return mWasted;
+	}
+
+	public synchronized long getThrottledCount() {
+		return mThrottled;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%d prefetched (%d fetched, %d bytes), %d used, %d late, %d wasted, %d skipped over budget, " +
+			"%d put off for a permit; hit rate %.0f%%, %d of %d demands served", mCompleted, mFetched, mBytes, mUsed, mLate,
+			mWasted, mSkipped, mThrottled, getHitRate() * 100, mUsed, mDemands);
+	}
+
+	private void submit(ArrayList<Prefetch> batch) {
+		ArrayList<Prefetch> stale;
+		synchronized (this) {
+			stale = new ArrayList<Prefetch>(mQueued);
+			mQueued.clear();
+			mQueued.addAll(batch);
+		}
+
+		// Only what's still waiting at speculative priority; a promoted prefetch belongs to the user now
+		for (Prefetch prefetch : stale) {
+			if (prefetch.getPriority() == LoadScheduler.Priority.SPECULATIVE) {
+				prefetch.cancel();
+			}
+		}
+		for (Prefetch prefetch : batch) {
+			mScheduler.execute(prefetch, LoadScheduler.Priority.SPECULATIVE, prefetch.mKey);
+		}
+	}
+
+	// Takes a request out of the budget, if there is one left this minute
+	private synchronized boolean spend() {
+		long now = System.currentTimeMillis();
+		while (!mSpent.isEmpty() && now - mSpent.peekFirst()[0] > sWindow) {
+			mSpent.removeFirst();
+		}
+
+		long bytes = 0;
+		for (long[] spent : mSpent) {
+			bytes += spent[1];
+		}
+		if (mSpent.size() >= mMaxRequests || bytes >= mMaxBytes) {
+			mSkipped++;
+			return false;
+		}
+		return true;
+	}
+
+	private boolean isQueued(CacheKey key) {
+		for (Prefetch prefetch : mQueued) {
+			if (prefetch.mKey.equals(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private final DataLoader mLoader;
+	private final LoadScheduler mScheduler;
+	private int mMaxRequests = DEFAULT_MAX_REQUESTS;
+	private long mMaxBytes = DEFAULT_MAX_BYTES;
+	private final ArrayList<Prefetch> mQueued = new ArrayList<Prefetch>();		// the last batch, minus what has finished
+	private final HashSet<CacheKey> mRunning = new HashSet<CacheKey>();		// speculative prefetches under way
+	private final HashSet<CacheKey> mFetchedKeys = new HashSet<CacheKey>();	// ... and those of them onFetch() has seen
+	private final ArrayDeque<long[]> mSpent = new ArrayDeque<long[]>();		// {time, bytes} of our fetches this last minute
+	private final LinkedHashMap<CacheKey, CacheKey> mWarmed = new LinkedHashMap<CacheKey, CacheKey>() {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheKey> eldest) {
+			// Nobody asked for it in the time it took 64 more to come along; call it wasted
+			if (size() > sMaxWarmed) {
+				mWasted++;
+				return true;
+			}
+			return false;
+		}
+	};
+	private long mCompleted = 0;
+	private long mFetched = 0;
+	private long mBytes = 0;
+	private long mUsed = 0;
+	private long mLate = 0;
+	private long mWasted = 0;
+	private long mSkipped = 0;
+	private long mThrottled = 0;
+	private long mDemands = 0;
+}
@@ -0,0 +1,45 @@
+package com.espn;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// PrefixFilter is the matching behind ImgTextAdapter's filter: an item matches if its text, or any word of it, starts
+// with the typed prefix (ignoring case).  It lives apart from the adapter so it can be measured on a plain JVM.
+public class PrefixFilter {
+	public interface Text<T> {
+		CharSequence textOf(T item);
+	}
+
+	// Returns the items of 'items' whose text matches 'prefix', in order
+	public static <T> ArrayList<T> filter(List<T> items, CharSequence prefix, Text<T> text) {
+		String prefixString = prefix.toString().toLowerCase();
+		ArrayList<T> newValues = new ArrayList<T>(items.size());
+
+		for (int i = 0; i < items.size(); i++) {
+			T value = items.get(i);
+			if (matches(text.textOf(value), prefixString)) {
+				newValues.add(value);
+			}
+		}
+
+		return newValues;
+	}
+
+	// 'prefixString' must already be lower case
+	public static boolean matches(CharSequence value, String prefixString) {
+		String valueText = value.toString().toLowerCase();
+
+		// First match against the whole value
+		if (valueText.startsWith(prefixString)) {
+			return true;
+		}
+
+		String[] words = valueText.split(" |\\n|,|-");
+		for (int k = 0; k < words.length; k++) {
+			if (words[k].startsWith(prefixString)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
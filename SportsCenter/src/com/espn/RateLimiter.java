@@ -0,0 +1,165 @@
+package com.espn;
+
+// RateLimiter is a token bucket: permits refill at a fixed rate up to 'burst', and each request takes one.  A caller
+// that finds the bucket empty reserves the next free slot and then sleeps for it /outside/ the lock, so callers never
+// hold anything while they wait or while their request is on the wire.  Reserving from an empty bucket, or charging
+// for a permit after the fact, puts it in debt, which simply pushes the next free slot further out.
+public class RateLimiter {
+	public RateLimiter(String name, double permitsPerSecond, int burst) {
+		mName = name;
+		mPermitsPerMilli = permitsPerSecond / 1000.0;
+		mBurst = burst;
+		mTokens = burst;
+		mLastRefill = System.currentTimeMillis();
+	}
+
+	// Takes a permit, waiting for one if needed.  Returns the time spent queued, in ms.
+	public long acquire() throws InterruptedException {
+		return acquire(null);
+	}
+
+	// ... unless 'cancel' is cancelled while we wait, in which case the permit goes back in the bucket for the next
+	// caller and we throw.  'cancel' may be null.
+	public long acquire(CancelToken cancel) throws InterruptedException {
+		return acquire(cancel, Long.MAX_VALUE);
+	}
+
+	// ... and only if the permit is ours within 'maxWait' ms.  If it isn't, we take nothing and return -1 straight
+	// away, rather than have the caller sleep for a slot it's too late to use.
+	public long acquire(CancelToken cancel, long maxWait) throws InterruptedException {
+		long wait = reserve();
+		if (wait >= maxWait) {
+			refund();
+			return -1;
+		}
+		if (!pause(wait, cancel)) {
+			refund();
+			throw new InterruptedException("Cancelled waiting on " + mName);
+		}
+
+		recordWait(wait);
+		return wait;
+	}
+
+	// For requests that only sometimes cost a permit (the proxy only goes to the api on a miss): waits until the bucket
+	// is out of debt, taking nothing, and the caller charge()s for the permit afterwards if it turns out it used one.
+	// Gives up, returning -1 straight away, if that would take 'maxWait' ms or more.
+	public long awaitAvailable(CancelToken cancel, long maxWait) throws InterruptedException {
+		long wait;
+		synchronized (this) {
+			refill();
+			wait = delayFor(0);
+		}
+		if (wait >= maxWait) {
+			return -1;
+		}
+		if (!pause(wait, cancel)) {
+			throw new InterruptedException("Cancelled waiting on " + mName);
+		}
+		return wait;
+	}
+
+	// Takes a permit after the fact, without waiting.  The bucket can go into debt for it, which later callers wait
+	// out, but by no more than one burst: however many misses land at once, nobody waits longer than that for them.
+	public synchronized void charge() {
+		refill();
+		mTokens = Math.max(-mBurst, mTokens - 1);
+		recordWait(0);
+	}
+
+	// Takes a permit only if one is free right now, for optional requests that shouldn't queue.  Returns whether it did.
+	public synchronized boolean tryAcquire() {
+		refill();
+		if (mTokens < 1) {
+			return false;
+		}
+
+		mTokens -= 1;
+		recordWait(0);
+		return true;
+	}
+
+	// Whether a permit is free right now, without taking it.  Never true while someone is waiting on one.
+	public synchronized boolean isAvailable() {
+		refill();
+		return mTokens >= 1;
+	}
+
+	// Reserves the next permit and returns how long the caller must wait before using it, in ms
+	public synchronized long reserve() {
+		refill();
+		long wait = delayFor(1);
+		mTokens -= 1;
+		return wait;
+	}
+
+	// Gives back a permit that was taken but turned out not to be needed
+	public synchronized void refund() {
+		refill();
+		mTokens = Math.min(mBurst, mTokens + 1);
+	}
+
+	public String getName() {
+		return mName;
+	}
+
+	public synchronized long getRequestCount() {
+		return mRequests;
+	}
+
+	public synchronized long getTotalWaitMillis() {
+		return mTotalWait;
+	}
+
+	public synchronized long getMaxWaitMillis() {
+		return mMaxWait;
+	}
+
+	public synchronized long getAverageWaitMillis() {
+		return mRequests == 0 ? 0 : mTotalWait / mRequests;
+	}
+
+	// Returns false if 'cancel' was cancelled before or during the wait
+	private static boolean pause(long wait, CancelToken cancel) throws InterruptedException {
+		if (cancel == null) {
+			if (wait > 0) {
+				Thread.sleep(wait);
+			}
+			return true;
+		}
+		return cancel.sleep(wait);
+	}
+
+	private long delayFor(int permits) {
+		if (mTokens >= permits) {
+			return 0;
+		}
+
+		return (long)Math.ceil((permits - mTokens) / mPermitsPerMilli);
+	}
+
+	private void refill() {
+		long now = System.currentTimeMillis();
+		if (now > mLastRefill) {
+			mTokens = Math.min(mBurst, mTokens + (now - mLastRefill) * mPermitsPerMilli);
+			mLastRefill = now;
+		}
+	}
+
+	private synchronized void recordWait(long wait) {
+		mRequests++;
+		mTotalWait += wait;
+		mMaxWait = Math.max(mMaxWait, wait);
+	}
+
+	private final String mName;
+	private final double mPermitsPerMilli;
+	private final int mBurst;
+	private double mTokens;
+	private long mLastRefill;
+
+	// Queue wait stats
+	private long mRequests = 0;
+	private long mTotalWait = 0;
+	private long mMaxWait = 0;
+}
@@ -0,0 +1,20 @@
+package com.espn;
+
+import java.util.Set;
+
+// RequestContext carries the per-request state that passes between DataLoader and a DataAccess.  Going in, it holds
+// the validators of the copy we already have (if any); coming back, the validators of the response, or a flag saying
+// the server told us our copy is still good.  It can also carry a deadline for the request, a
+// CancelToken for calling it off, the ids of items we already have, for the parser to skip, and whether the request is
+// background work that mustn't wait on the rate limits.
+public class RequestContext {
+	public String mETag = null;				// sent as If-None-Match, replaced by the ETag of a 200 we parsed (or a 304)
+	public String mLastModified = null;		// sent as If-Modified-Since, replaced the same way by Last-Modified
+	public boolean mNotModified = false;	// the server answered 304; nothing was parsed and the caller's copy stands
+	public long mDeadline = 0;				// System.currentTimeMillis() by which the request must be done; 0 for the default
+	public long mWireBytes = 0;				// comes back as how many body bytes the response took over the wire
+	public CancelToken mCancel = null;		// aborts the request, queued or on the wire; null if it can't be called off
+	public Set<String> mKnownIds = null;	// items with these ids are left out of the result; null to get everything
+	public boolean mOptional = false;		// only sent if a rate limit permit is free right now; never queues for one
+	public boolean mThrottled = false;		// comes back set if an optional request was put off for want of a permit
+}
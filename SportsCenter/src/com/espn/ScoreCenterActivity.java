@@ -1,17 +1,22 @@
 package com.espn;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 import android.app.Activity;
 import android.app.AlertDialog;
 import android.app.Dialog;
 import android.app.ProgressDialog;
+import android.content.ComponentCallbacks2;
 import android.content.DialogInterface;
 import android.content.DialogInterface.OnDismissListener;
 import android.graphics.Color;
-import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.Handler;
 import android.text.Editable;
 import android.text.Html;
 import android.text.InputType;
@@ -35,64 +40,146 @@ import android.widget.TextView;
 import com.espn.ScoreCenter.R;
 
 public class ScoreCenterActivity extends Activity {		
+	// How far ahead we prefetch: the rosters of the team grid's first row, and the teams of a sport's first leagues
+	private static final int sPrefetchedRosters = 3;
+	private static final int sPrefetchedLeagues = 2;
+	
 	// TODO: handle onPause, in case of incoming phone call, etc
-	abstract private class LoadDataTask<T1> extends AsyncTask<Void, Void, T1>	{
+	abstract private class LoadDataTask<T1> extends LoadScheduler.Task<T1>	{
 		protected Object mParam;
 		protected ScoreCenterActivity mContext;
+		protected CancelToken mCancel = null;	// set for loads that belong to the selected group; see trackGroupLoad()
 		
 		LoadDataTask(Object param, ScoreCenterActivity context) {
 			mParam = param;
 			mContext = context;
 		}
+		
+		// 'key' is what the task loads, so a speculative load of the same thing can be promoted; see LoadScheduler
+		void execute(LoadScheduler.Priority priority, CacheKey key) {
+			if (priority != LoadScheduler.Priority.SPECULATIVE) {
+				mPrefetcher.onDemand(key);
+			}
+			mScheduler.execute(this, priority, key);
+		}
 	}
 	
-	abstract private class LoadNewsTask extends LoadDataTask<LinkedList<NewsItem>> {
+	// Shows a news feed in a ScrollView.  If the view already shows the same feed (a team's news is its league's),
+	// we keep what's there and only add and remove the rows that changed; otherwise we start over.
+	abstract private class LoadNewsTask extends LoadDataTask<NewsStore> {
 		public final int mScrollViewID;
+		public final CacheKey mFeed;
 		
-		LoadNewsTask(Object param, ScoreCenterActivity context, int scrollViewID) {
-			super(param, context);
+		LoadNewsTask(Grouping group, ScoreCenterActivity context, int scrollViewID) {
+			super(group, context);
 			mScrollViewID = scrollViewID;
+			mFeed = group.getCacheKey(DataType.NEWS);
 		}
 				
 		@Override
 		protected void onPreExecute() {
 			super.onPreExecute();
+			if (isShowing()) {
+				return;
+			}
+			
+			mNewsFeed = null;
+			mNewsList = null;
+			mNewsShown = null;
 			ScrollView sv = (ScrollView)findViewById(mScrollViewID);
 			sv.removeAllViews();
 			
 			sv.addView(getProgressBar(mContext));
 		}
 		
-		protected void onPostExecute(LinkedList<NewsItem> results) {
+		protected void onPostExecute(NewsStore results) {
 			if (results == null) {
 				return;
 			}    		
 
+			if (isShowing()) {
+				// Rows are headline views with a separator between each two, in the store's order
+				NewsStore.Delta delta = results.diff(mNewsShown);
+				for (int row : delta.mRemoved) {
+					removeNewsRow(row);
+				}
+				for (int i = 0; i < delta.mAdded.size(); i++) {
+					insertNewsRow(delta.mAddedAt[i], delta.mAdded.get(i));
+				}
+				mNewsShown = results;
+				Log.v("SCA", delta.mAdded.size() + " new headlines, " + delta.mRemoved.length + " gone for " + mFeed);
+				return;
+			}
+
 			ScrollView sv = (ScrollView)findViewById(mScrollViewID);
 			sv.removeAllViews();
 			
 			LinearLayout ll = new LinearLayout(mContext);
 			ll.setOrientation(LinearLayout.VERTICAL);
 			ll.setLayoutParams(new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
-			for (NewsItem news : results) {
-				TextView tv = new TextView(mContext);
-				tv.setLineSpacing(0,.8f);
-				StringBuilder text = new StringBuilder("");
-				text.append("<p><font color=0x111111><b>" + news.mHeadline + "</b></font><br/>");
-				text.append("<font color=0x007b25><small>" + news.mPublishDate.toLocaleString() + "</small></font></p>");
-				text.append("<p><font color=0x333333>" + getTwizlerHTML() + "</font></p>"); 
-				tv.setText(Html.fromHtml((text.toString())));
-				// TODO: onClick handler to get full stories
-				ll.addView(tv);
-				if (news != results.getLast()) {
-					// Horizontal separator between stories
-					View seperator = new View(mContext);
-					seperator.setLayoutParams(new LayoutParams(LayoutParams.MATCH_PARENT, 1));
-					seperator.setBackgroundColor(0xff333333);
-					ll.addView(seperator);
+			LinkedList<NewsItem> items = results.items();
+			for (NewsItem news : items) {
+				ll.addView(getNewsView(news));
+				if (news != items.getLast()) {
+					ll.addView(getNewsSeparator());
 				}    						
 			}
 			sv.addView(ll);
+			mNewsList = ll;
+			mNewsFeed = mFeed;
+			mNewsShown = results;
+		}
+		
+		private boolean isShowing() {
+			return mFeed.equals(mNewsFeed) && mNewsList != null && mNewsShown != null;
+		}
+		
+		// Takes out headline 'row', and the separator that went with it
+		private void removeNewsRow(int row) {
+			int child = 2 * row;
+			mNewsList.removeViewAt(child);
+			if (child > 0) {
+				mNewsList.removeViewAt(child - 1);
+			}
+			else if (mNewsList.getChildCount() > 0) {
+				mNewsList.removeViewAt(0);
+			}
+		}
+		
+		// Puts 'news' in as headline 'row', with a separator from whichever neighbour it has
+		private void insertNewsRow(int row, NewsItem news) {
+			if (row == 0) {
+				if (mNewsList.getChildCount() > 0) {
+					mNewsList.addView(getNewsSeparator(), 0);
+				}
+				mNewsList.addView(getNewsView(news), 0);
+			}
+			else {
+				mNewsList.addView(getNewsSeparator(), 2 * row - 1);
+				mNewsList.addView(getNewsView(news), 2 * row);
+			}
+		}
+		
+		private View getNewsView(NewsItem news) {
+			TextView tv = new TextView(mContext);
+			tv.setLineSpacing(0,.8f);
+			StringBuilder text = new StringBuilder("");
+			text.append("<p><font color=0x111111><b>" + news.mHeadline + "</b></font><br/>");
+			if (news.mPublishDate != null) {
+				text.append("<font color=0x007b25><small>" + news.mPublishDate.toLocaleString() + "</small></font>");
+			}
+			text.append("</p><p><font color=0x333333>" + getTwizlerHTML() + "</font></p>"); 
+			tv.setText(Html.fromHtml((text.toString())));
+			// TODO: onClick handler to get full stories
+			return tv;
+		}
+		
+		// Horizontal separator between stories
+		private View getNewsSeparator() {
+			View seperator = new View(mContext);
+			seperator.setLayoutParams(new LayoutParams(LayoutParams.MATCH_PARENT, 1));
+			seperator.setBackgroundColor(0xff333333);
+			return seperator;
 		}
 	}
 	
@@ -123,6 +210,15 @@ public class ScoreCenterActivity extends Activity {
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);        
+        mDataLoader = DataLoader.acquire(this);
+        final Handler handler = new Handler();
+        mScheduler = new LoadScheduler(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				handler.post(command);
+			}
+		});
+        mPrefetcher = new Prefetcher(mDataLoader, mScheduler);
         
         try {
         	setContentView(R.layout.main);
@@ -156,18 +252,28 @@ public class ScoreCenterActivity extends Activity {
         mContentContainer3 = (LinearLayout) findViewById(R.id.contentContainer3);
         
         // Load data
-        // Baseball we give special treatment because mlb is assumed to be our 'favorite', so loads immediately
-        Grouping favoriteSport = new Grouping(Grouping.GroupingType.SPORT, "Baseball", "Baseball", mSportsData);
+        // Baseball we give special treatment because mlb is assumed to be our 'favorite', so loads first, and is what
+        // we show once it's in.  Off the UI thread all the same: a cold install has to go to the network for it.
+        final Grouping favoriteSport = new Grouping(Grouping.GroupingType.SPORT, "Baseball", "Baseball", mSportsData);
         favoriteSport.mImageID = R.drawable.baseball;
         mSportsData.add(favoriteSport);
-        LinkedList<Grouping> results = mDataLoader.LoadLeaguesFromSport(favoriteSport);
-		if (results != null) {
-			for (Grouping grp : results) {
-				Log.v("ScoreCenterActivity", "Got league " + grp.mName);
-				favoriteSport.add(grp);
+        LoadDataTask<LinkedList<Grouping>> favoriteTask = new LoadDataTask<LinkedList<Grouping>>(favoriteSport, this) {
+			protected LinkedList<Grouping> doInBackground() {
+				LinkedList<Grouping> results = mDataLoader.LoadLeaguesFromSport((Grouping)mParam);
+				if (results != null) {
+					favoriteSport.addAll(results);
+				}
+				return results;
 			}
-		}
-					
+			
+			protected void onPostExecute(LinkedList<Grouping> results) {
+				// Unless the user has gone somewhere else in the meantime
+				if (mSelectedGroup == null) {
+					setActiveGroup(favoriteSport.getContentGroup("MLB"));
+				}
+			}
+        };
+        favoriteTask.execute(LoadScheduler.Priority.USER_VISIBLE, favoriteSport.getCacheKey(DataType.LEAGUES));
         
         for (String sport : new String[]{"Football", "Basketball", "Soccer"}) {
         	final Grouping sportGroup = new Grouping(Grouping.GroupingType.SPORT, sport, sport, mSportsData);
@@ -175,34 +281,67 @@ public class ScoreCenterActivity extends Activity {
         		continue;
         	}
             LoadDataTask<LinkedList<Grouping>> task = new LoadDataTask<LinkedList<Grouping>>(sportGroup, this) {
-    			protected LinkedList<Grouping> doInBackground(Void... params) {
-    				return mDataLoader.LoadLeaguesFromSport((Grouping)mParam);
-    			}
-            	
-    			protected void onPostExecute(LinkedList<Grouping> results) {
-    				if (results == null) {
-    					return;
-    				}
-    				
-    				if (sportGroup.mContents.size() == 0) {	// make doubly sure we don't accidentally load extra values    					
-	    				for (Grouping grp : results) {
-	    					Log.v("ScoreCenterActivity", "Got league " + grp.mName);
-	    					sportGroup.add(grp);
-	    				}
+    			protected LinkedList<Grouping> doInBackground() {
+    				LinkedList<Grouping> results = mDataLoader.LoadLeaguesFromSport((Grouping)mParam);
+    				if (results != null) {
+    					// Published from here; there's nothing to draw, so nothing for the UI thread to do
+    					sportGroup.addAll(results);
     				}
+    				return results;
     			}
             };
-            task.execute();
+            // Nobody is looking at these yet; they mustn't get in the way of loads for what's on screen
+            task.execute(LoadScheduler.Priority.SPECULATIVE, sportGroup.getCacheKey(DataType.LEAGUES));
         }
         
         mSportsData.get("Football").mImageID = R.drawable.football;
         mSportsData.get("Basketball").mImageID = R.drawable.basketball;
         mSportsData.get("Soccer").mImageID = R.drawable.soccerball;
         
-        setActiveGroup(favoriteSport.getContentGroup("MLB"));      
-        
         //mGLView = new MyGLSurfaceView(this);
     }
+    
+    @Override
+    protected void onDestroy() {
+    	cancelGroupLoads();
+    	mScheduler.shutdown();
+    	DataLoader.release();
+    	super.onDestroy();
+    }
+    
+    @Override
+    public void onTrimMemory(int level) {
+    	super.onTrimMemory(level);
+    	mDataLoader.trimMemory(level);
+    }
+    
+    @Override
+    public void onLowMemory() {
+    	super.onLowMemory();
+    	mDataLoader.trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+    }
+    
+    // 'adb shell dumpsys activity com.espn.ScoreCenter' prints where our loads have been spending their time
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+    	super.dump(prefix, fd, writer, args);
+    	writer.print(prefix);
+    	writer.println("Data loader:");
+    	for (String line : mDataLoader.getMetrics().toString().split("\n")) {
+    		writer.print(prefix);
+    		writer.print("  ");
+    		writer.println(line);
+    	}
+    	writer.print(prefix);
+    	writer.println("Prefetcher: " + mPrefetcher);
+    	writer.print(prefix);
+    	writer.println("Load scheduler:");
+    	for (String line : mScheduler.toString().split("\n")) {
+    		writer.print(prefix);
+    		writer.print("  ");
+    		writer.println(line);
+    	}
+    }
 
     public void setActiveGroup(final Grouping group) {
     	if (group == null) {
@@ -210,13 +349,17 @@ public class ScoreCenterActivity extends Activity {
     		return;
     	}
     	
+    	// Whatever the last group was still loading, nobody is going to see it now
+    	cancelGroupLoads();
+    	
     	// Just so happens that news is tab1 for everything that has news
     	mSelectedGroup = group;
     	LoadNewsTask newsTask = new LoadNewsTask(group, this, R.id.scrollview0) {
-			protected LinkedList<NewsItem> doInBackground(Void... params) {
-				return mDataLoader.LoadNewsFromGroup((Grouping)mParam);
+			protected NewsStore doInBackground() {
+				return mDataLoader.LoadNews((Grouping)mParam, false, mCancel);
 			}
     	};
+    	trackGroupLoad(newsTask);
     	
     	mTeamHeader.setVisibility(View.GONE);
     	mPlayerHeader.setVisibility(View.GONE);
@@ -228,7 +371,7 @@ public class ScoreCenterActivity extends Activity {
     	case NONE:// TODO: return ? error?
     		mHandle1.setText(R.string.News);
     		mHandle2.setText(R.string.Standings);
-    		newsTask.execute();       
+    		newsTask.execute(LoadScheduler.Priority.VISIBLE_SOON, group.getCacheKey(DataType.NEWS));       
     		break;
     	case SPORT:
     		mHandle1.setText(R.string.News);
@@ -237,7 +380,8 @@ public class ScoreCenterActivity extends Activity {
     		mHandle4.setText(R.string.Schedule);
     		mSportHeader.setImageResource(group.mImageID);
     		mLeagueHeaderText.setText(Html.fromHtml("<i><small>&lt;select league&gt;</small></i>"));
-    		newsTask.execute();       
+    		mPrefetcher.prefetchTeams(group.mContents, sPrefetchedLeagues);
+    		newsTask.execute(LoadScheduler.Priority.VISIBLE_SOON, group.getCacheKey(DataType.NEWS));       
     		break;
     	case LEAGUE:
     		mHandle1.setText(R.string.News);
@@ -260,8 +404,13 @@ public class ScoreCenterActivity extends Activity {
 	    				mContentContainer3.addView(getProgressBar(mContext));
 	    			}
 	    			
-	    			protected LinkedList<TeamGrouping> doInBackground(Void... params) {
-	    				return mDataLoader.LoadTeamsFromLeague((Grouping)mParam);
+	    			protected LinkedList<TeamGrouping> doInBackground() {
+	    				LinkedList<TeamGrouping> results = mDataLoader.LoadTeamsFromLeague((Grouping)mParam, false, mCancel);
+	    				if (results != null) {
+	    					// The new version of the league is built and swapped in here, off the UI thread
+	    					group.addAll(results);
+	    				}
+	    				return results;
 	    			}
 	            	
 	    			protected void onPostExecute(LinkedList<TeamGrouping> results) {
@@ -275,30 +424,26 @@ public class ScoreCenterActivity extends Activity {
 	    					return;
 	    				}
 	    				
-	    				GridView gv = ScoreCenterActivity.getTeamGridView(mContext, results);
+	    				GridView gv = ScoreCenterActivity.getTeamGridView(mContext, group.mContents);
 	    				EditText et = getEditTextFilter(mContext, (ImgTextAdapter)gv.getAdapter(), "Team name");
 	    				
-	    				if (group.mContents.size() == 0) {	    					
-		    				for (Grouping grp : results) {
-		    					Log.v("ScoreCenterActivity", "Got team " + grp.mName);
-		    					group.add(grp);
-		    				}
-	    				}
-	    				
 	    				mContentContainer3.addView(et);
 	    				mContentContainer3.addView(gv);
+	    				mPrefetcher.prefetchRosters(results, sPrefetchedRosters);
 	    			}
 	            };
-	            loadTeamsTask.execute();
+	            trackGroupLoad(loadTeamsTask);
+	            loadTeamsTask.execute(LoadScheduler.Priority.USER_VISIBLE, group.getCacheKey(DataType.TEAMS));
     		}
     		else {
 				GridView gv = ScoreCenterActivity.getTeamGridView(this, group.mContents);
 				EditText et = getEditTextFilter(this, (ImgTextAdapter)gv.getAdapter(), "Team name");
 				mContentContainer3.addView(et);
 				mContentContainer3.addView(gv);
+				mPrefetcher.prefetchRosters(group.mContents, sPrefetchedRosters);
     		}
             
-    		newsTask.execute();      				     
+    		newsTask.execute(LoadScheduler.Priority.VISIBLE_SOON, group.getCacheKey(DataType.NEWS));      				     
     		break;
     	case TEAM:
     		mHandle1.setText(R.string.News);
@@ -321,8 +466,12 @@ public class ScoreCenterActivity extends Activity {
 	    				mContentContainer3.addView(getProgressBar(mContext));
 	    			}
 	    			
-	    			protected LinkedList<Player> doInBackground(Void... params) {
-	    				return mDataLoader.LoadPlayersFromTeam((TeamGrouping)mParam);
+	    			protected LinkedList<Player> doInBackground() {
+	    				LinkedList<Player> results = mDataLoader.LoadPlayersFromTeam((TeamGrouping)mParam, false, mCancel);
+	    				if (results != null) {
+	    					group.getTeam().addPlayers(results);
+	    				}
+	    				return results;
 	    			}
 	            	
 	    			protected void onPostExecute(LinkedList<Player> results) {
@@ -336,12 +485,6 @@ public class ScoreCenterActivity extends Activity {
 	    					return;
 	    				}	    					    				
 	    				
-	    				if (group.mContents.size() == 0) {	  
-		    				for (Player player : results) { 
-		    					group.getTeam().add(player);
-		    				}
-	    				}
-	    				
 	    				final ListView lv = ScoreCenterActivity.getPlayerListView(mContext, group.getTeam().players());
 	        			final EditText et = getEditTextFilter(mContext, (ImgTextAdapter)lv.getAdapter(), "Player, team, position"); 			    			
 	        			
@@ -349,7 +492,8 @@ public class ScoreCenterActivity extends Activity {
 	        			mContentContainer3.addView(lv);
 	    			}
 	            };
-	            loadPlayersTask.execute();
+	            trackGroupLoad(loadPlayersTask);
+	            loadPlayersTask.execute(LoadScheduler.Priority.USER_VISIBLE, group.getCacheKey(DataType.PLAYERS));
     		}
     		else {
     			final ListView lv = ScoreCenterActivity.getPlayerListView(this, group.getTeam().players());
@@ -364,6 +508,22 @@ public class ScoreCenterActivity extends Activity {
     	}    	
     }
     
+    // Ties 'task' to the selected group: when the selection changes, it is cancelled before it starts if it is still
+    // queued, and its requests are aborted if it isn't
+    private void trackGroupLoad(LoadDataTask<?> task) {
+    	task.mCancel = mGroupLoadsCancel;
+    	mGroupLoads.add(task);
+    }
+    
+    private void cancelGroupLoads() {
+    	mGroupLoadsCancel.cancel();
+    	for (LoadDataTask<?> task : mGroupLoads) {
+    		task.cancel();
+    	}
+    	mGroupLoads.clear();
+    	mGroupLoadsCancel = new CancelToken();
+    }
+    
     // Unlike other selectable types, 'player' is not a group, so has to be handled separately
     void setActivePlayer(Player player) {
     	mHandle1.setText(R.string.Stats);
@@ -426,7 +586,8 @@ public class ScoreCenterActivity extends Activity {
     }
     
     public void onHeaderLeagueClick(View v) {
-    	if (mActiveDialog == true) {
+    	// Nothing is selected until the favorite sport's leagues are in
+    	if (mActiveDialog == true || mSelectedGroup == null) {
     		return;
     	}
     	
@@ -439,9 +600,8 @@ public class ScoreCenterActivity extends Activity {
     		// TODO: convert to async task
     		Log.v("ScoreCenterActivity", "onHeaderLeagueClick, loading leagues");
 			LinkedList<Grouping> results = mDataLoader.LoadLeaguesFromSport(sportGroup); 					
-			for (Grouping grp : results) {
-				Log.v("ScoreCenterActivity", "Got league " + grp.mName);
-				sportGroup.add(grp);
+			if (results != null) {
+				sportGroup.addAll(results);
 			}
     	}    	
     	
@@ -480,7 +640,7 @@ public class ScoreCenterActivity extends Activity {
     }    
     
     public void onHeaderTeamClick(View v) {
-    	if (mActiveDialog == true) {
+    	if (mActiveDialog == true || mSelectedGroup == null) {
     		return;
     	}
     	
@@ -506,25 +666,22 @@ public class ScoreCenterActivity extends Activity {
     		}    		
     			
 			@Override
-			protected LinkedList<TeamGrouping> doInBackground(Void... params) {
+			protected LinkedList<TeamGrouping> doInBackground() {
 				if (leagueGroup.mContents.size() == 0) {
 		    		// Hopefully we won't get here - but if we do, in order to not have difficult race conditions, we 
 		    		// will get the data in the UI thread
 		    		Log.v("ScoreCenterActivity", "onHeaderTeamClick, loading teams");
-					return mDataLoader.LoadTeamsFromLeague(leagueGroup);			
+					LinkedList<TeamGrouping> results = mDataLoader.LoadTeamsFromLeague(leagueGroup);
+					if (results != null) {
+						leagueGroup.addAll(results);
+					}
+					return results;
 		    	}
 				
 				return null;
 			}
 			
     		protected void onPostExecute(LinkedList<TeamGrouping> results) {
-    			if (leagueGroup.mContents.size() == 0 && results != null) {
-					for (TeamGrouping grp : results) {
-						Log.v("ScoreCenterActivity", "Got team " + grp.mName);
-						leagueGroup.add(grp);
-					}										
-    			}
-    			
     			if (leagueGroup.mContents.size() == 0) {
     				// Still no teams for league - abort!
     				mActiveDialog = false;
@@ -575,11 +732,11 @@ public class ScoreCenterActivity extends Activity {
     		}
     	};
     	
-    	task.execute();
+    	task.execute(LoadScheduler.Priority.USER_VISIBLE, leagueGroup.getCacheKey(DataType.TEAMS));
     }
     
     public void onHeaderPlayerClick(View v) {
-    	if (mActiveDialog == true) {
+    	if (mActiveDialog == true || mSelectedGroup == null) {
     		return;
     	}
     	
@@ -608,12 +765,16 @@ public class ScoreCenterActivity extends Activity {
     		}
     		
     		@Override
-			protected LinkedList<Player> doInBackground(Void... params) {
+			protected LinkedList<Player> doInBackground() {
 				if (teamGroup.size() == 0) {
 		    		// Hopefully we won't get here - but if we do, in order to not have difficult race conditions, we 
 		    		// will get the data in the UI thread
 		    		Log.v("ScoreCenterActivity", "onHeaderPlayerClick, loading players");
-					return mDataLoader.LoadPlayersFromTeam(teamGroup);										
+					LinkedList<Player> results = mDataLoader.LoadPlayersFromTeam(teamGroup);
+					if (results != null) {
+						teamGroup.addPlayers(results);
+					}
+					return results;
 		    	}
 				
 				return null;
@@ -621,12 +782,6 @@ public class ScoreCenterActivity extends Activity {
     		
     		@Override
     		protected void onPostExecute(LinkedList<Player> results) {
-    			if (teamGroup.size() == 0 && results != null) {
-	    			for (Player grp : results) {
-						teamGroup.add(grp);
-					}
-    			}
-    			
     			if (teamGroup.size() == 0) {
     				// Still no players for team - abort!
     				mActiveDialog = false;
@@ -677,7 +832,7 @@ public class ScoreCenterActivity extends Activity {
     		}
     	};
     	
-    	task.execute();    	    	
+    	task.execute(LoadScheduler.Priority.USER_VISIBLE, teamGroup.getCacheKey(DataType.PLAYERS));
     }
     
     public static EditText getEditTextFilter(final ScoreCenterActivity context, final ImgTextAdapter adapter, final String hint) {
@@ -705,7 +860,7 @@ public class ScoreCenterActivity extends Activity {
 		return et;
     }
     
-    public static ListView getPlayerListView(final ScoreCenterActivity context, final LinkedList<Player> players) {
+    public static ListView getPlayerListView(final ScoreCenterActivity context, final List<Player> players) {
     	ListView lv = new ListView(context);
     	lv.setLayoutParams(new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
 		lv.setCacheColorHint(Color.TRANSPARENT);
@@ -728,7 +883,7 @@ public class ScoreCenterActivity extends Activity {
 		return lv;
     }
     
-    public static <T> GridView getTeamGridView(final ScoreCenterActivity context, final LinkedList<T> groups) {
+    public static <T> GridView getTeamGridView(final ScoreCenterActivity context, final List<T> groups) {
     	GridView gv = new GridView(context);
 		gv.setLayoutParams(new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
 		gv.setNumColumns(3);
@@ -775,7 +930,14 @@ public class ScoreCenterActivity extends Activity {
     
     private Grouping mSportsData = new Grouping(Grouping.GroupingType.NONE, "", "", null);
     private Grouping mSelectedGroup = null;
-    private DataLoader mDataLoader = new DataLoader();
+    private DataLoader mDataLoader;
+    private LoadScheduler mScheduler;
+    private Prefetcher mPrefetcher;
+    private ArrayList<LoadDataTask<?>> mGroupLoads = new ArrayList<LoadDataTask<?>>();	// loads for mSelectedGroup
+    private CancelToken mGroupLoadsCancel = new CancelToken();
+    private CacheKey mNewsFeed = null;		// the news feed on the news tab, if it's all there
+    private LinearLayout mNewsList = null;	// ... the views of its headlines
+    private NewsStore mNewsShown = null;	// ... and the store they show
     
     // Header controls
     private ImageButton mSportHeader;
@@ -0,0 +1,38 @@
+package com.espn;
+
+import java.util.HashMap;
+
+// StringPool hands out one shared copy of the strings that repeat across everything we parse and cache: team and
+// league names, locations, abbreviations.  Every reload of a team list would otherwise bring its own copies, for
+// the cache entry and for the Grouping tree both.  It's for small vocabularies only; athletes' names are all different,
+// and pooling them would just pin them in memory.  Once full, strings are passed through as they are.
+public class StringPool {
+	private static final int sMaxSize = 4096;
+
+	// The pooled copy of 's'; 's' itself the first time we see it
+	public static String intern(String s) {
+		if (s == null) {
+			return null;
+		}
+
+		synchronized (sPool) {
+			String ret = sPool.get(s);
+			if (ret == null) {
+				if (sPool.size() >= sMaxSize) {
+					return s;
+				}
+				sPool.put(s, s);
+				ret = s;
+			}
+			return ret;
+		}
+	}
+
+	public static int size() {
+		synchronized (sPool) {
+			return sPool.size();
+		}
+	}
+
+	private static final HashMap<String, String> sPool = new HashMap<String, String>();
+}
@@ -1,36 +1,129 @@
 package com.espn;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReference;
 
+// A team, and its roster.  The roster is published the way Grouping's children are: as immutable, versioned Roster
+// snapshots, built by whoever adds players and swapped in atomically, so any thread can read it without locking.
 public class TeamGrouping extends Grouping {
+	// The players as of one version, in the order they were added, with the set of their keys for telling who's new
+	public static final class Roster {
+		static final Roster EMPTY = new Roster(new ArrayList<Player>(0), new HashSet<Object>(0), 0);
+
+		private Roster(ArrayList<Player> players, HashSet<Object> keys, long version) {
+			mPlayers = players;
+			mKeys = keys;
+			mVersion = version;
+			mView = Collections.unmodifiableList(players);
+		}
+
+		// This roster plus those of 'added' we don't have (by Player.getKey()); this one if there are none
+		public Roster with(Collection<Player> added) {
+			ArrayList<Player> players = null;
+			HashSet<Object> keys = null;
+			for (Player player : added) {
+				Object key = player.getKey();
+				if ((keys != null ? keys : mKeys).contains(key)) {
+					continue;
+				}
+
+				if (players == null) {
+					players = new ArrayList<Player>(mPlayers.size() + added.size());
+					players.addAll(mPlayers);
+					keys = new HashSet<Object>(mKeys);
+				}
+				players.add(player);
+				keys.add(key);
+			}
+
+			return players != null ? new Roster(players, keys, mVersion + 1) : this;
+		}
+
+		public boolean contains(Player player) {
+			return mKeys.contains(player.getKey());
+		}
+
+		public List<Player> players() {
+			return mView;
+		}
+
+		public int size() {
+			return mPlayers.size();
+		}
+
+		public long getVersion() {
+			return mVersion;
+		}
+
+		private final ArrayList<Player> mPlayers;
+		private final List<Player> mView;
+		private final HashSet<Object> mKeys;
+		private final long mVersion;
+	}
+
+	// What players() is
+	private class PlayersView extends AbstractList<Player> implements RandomAccess {
+		@Override
+		public Player get(int location) {
+			return mRoster.get().mPlayers.get(location);
+		}
+
+		@Override
+		public int size() {
+			return mRoster.get().mPlayers.size();
+		}
+	}
+
 	TeamGrouping(String name, String abbrev, Grouping parent) {
 		super(GroupingType.TEAM, name, abbrev, parent);
 	}
-	
-	public void add(Player player) {
-		String key = player.mDisplayName;
-		for (Player pl : mPlayers) {
-			if (player.mDisplayName == pl.mDisplayName) {
-				return;
+
+	// Adds 'player' unless we already have them (by Player.getKey()).  Returns whether they were added.  Each call
+	// is a new version, so use addPlayers() for more than one.
+	public boolean add(Player player) {
+		return addPlayers(Collections.singletonList(player)) > 0;
+	}
+
+	// A whole roster at once, as the loader hands it back, as one new version; safe to call from any thread.  Returns
+	// how many were new.
+	public int addPlayers(Collection<Player> players) {
+		while (true) {
+			Roster current = mRoster.get();
+			Roster next = current.with(players);
+			if (next == current) {
+				return 0;
+			}
+			if (mRoster.compareAndSet(current, next)) {
+				return next.size() - current.size();
 			}
 		}
-		
-		mPlayers.add(player);
-	}	
-	
+	}
+
 	public Player get(int position) {
-		return mPlayers.get(position);
+		return mRoster.get().mPlayers.get(position);
 	}
-	
+
 	public int size() {
-		return mPlayers.size();
+		return mRoster.get().size();
 	}
-	
-	public LinkedList<Player> players() {
-		return mPlayers;
+
+	// The roster as it is now; hold on to it to see one consistent version
+	public Roster getRoster() {
+		return mRoster.get();
+	}
+
+	// A read-only view of the current roster.  Players are only appended, so positions stay good as it grows.
+	public List<Player> players() {
+		return mPlayersView;
 	}
-	
-	private LinkedList<Player> mPlayers = new LinkedList<Player>();
+
+	private final AtomicReference<Roster> mRoster = new AtomicReference<Roster>(Roster.EMPTY);
+	private final List<Player> mPlayersView = new PlayersView();
 	public String mLocation = "";
 }